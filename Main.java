@@ -8,7 +8,8 @@ import java.util.List;
 
 public class Main {
 
-
+    // Looked up once; ZoneId.of per entry parses the id and looks up the zone rules every time
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
 
     // Your standard model for working with prices
     public record PriceEntry(
@@ -72,7 +73,7 @@ public class Main {
         List<ElpriserAPI.Elpris> raw = api.getPriser(date, zone);
         return raw.stream()
                 .map(e -> new PriceEntry(
-                        e.timeStart().withZoneSameInstant(ZoneId.of("Europe/Stockholm")),
+                        e.timeStart().withZoneSameInstant(STOCKHOLM),
                         e.sekPerKWh(),
                         sourceDay))
                 .toList();
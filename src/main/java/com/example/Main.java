@@ -1,32 +1,50 @@
 package com.example;
 
+import com.example.api.BillSimulator;
+import com.example.api.ChargingIndex;
 import com.example.api.ElpriserAPI;
+import com.example.api.PriceRanking;
+import com.example.api.PriceSeries;
+import com.example.api.PriceStats;
+import com.example.api.ZoneSpread;
+import com.example.output.PriceWriter;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class Main {
     public static void main(String[] args) {
 
-        ElpriserAPI api = new ElpriserAPI();
         Map<String, String> arguments = parseArgs(args);
 
+        // --spread compares all zones, so --zone is only required without it
+        boolean spreadMode = arguments.containsKey("--spread");
+
         // --- Required argument: zone ---
-        if (!arguments.containsKey("--zone")) {
+        if (!spreadMode && !arguments.containsKey("--zone")) {
             System.err.println("Fel: --zone är obligatoriskt (SE1, SE2, SE3, SE4).");
-            System.out.println("Usage: java -jar app.jar --zone SE1|SE2|SE3|SE4 [--date YYYY-MM-DD] [--sorted] [--charging 2h|4h|8h]");
+            System.out.println("Usage: java -jar app.jar --zone SE1|SE2|SE3|SE4 [--date YYYY-MM-DD] [--sorted [--limit N]] [--charging 2h|4h|8h] [--format text|csv|json|ndjson]");
+            System.out.println("       java -jar app.jar --spread [--date YYYY-MM-DD] [--days N] [--charging Nh] [--format text|csv|json|ndjson]");
+            System.out.println("       java -jar app.jar --zone SE1|SE2|SE3|SE4 --bill FILE|DIR [--shift 30%] [--shift-window Nh] [--format text|csv|json|ndjson]");
             return;
         }
 
-        String zone = arguments.get("--zone");
-        ElpriserAPI.Prisklass priceZone;
-        try {
-            priceZone = ElpriserAPI.Prisklass.valueOf(zone);
-        } catch (IllegalArgumentException e) {
-            System.out.println("Ogiltig zon. Giltiga zoner: SE1, SE2, SE3, SE4.");
-            return;
+        ElpriserAPI.Prisklass priceZone = null;
+        if (!spreadMode) {
+            try {
+                priceZone = ElpriserAPI.Prisklass.valueOf(arguments.get("--zone"));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Ogiltig zon. Giltiga zoner: SE1, SE2, SE3, SE4.");
+                return;
+            }
         }
 
         // --- Optional: date ---
@@ -40,53 +58,105 @@ public class Main {
             }
         }
 
-        // Initialize API
-        System.out.println("ElpriserAPI initialiserat. Cachning: På");
-        System.out.println("!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
+        // --- Optional: number of days (spread mode) ---
+        int days = 1;
+        if (arguments.containsKey("--days")) {
+            try {
+                days = Integer.parseInt(arguments.get("--days"));
+            } catch (NumberFormatException e) {
+                days = 0;
+            }
+            if (days < 1) {
+                System.out.println("Ogiltigt antal dagar. Ange ett heltal större än 0.");
+                return;
+            }
+        }
 
-        // --- Fetch prices ---
-        List<ElpriserAPI.Elpris> prices = api.getPriser(date, priceZone);
+        // --- Optional: limit for --sorted ---
+        if (arguments.containsKey("--limit") && limit(arguments, Integer.MAX_VALUE) < 0) {
+            System.out.println("Ogiltig gräns. Ange --limit som ett heltal större än eller lika med 0.");
+            return;
+        }
 
-        // Include next day's data (for charging window across midnight)
-        List<ElpriserAPI.Elpris> nextDayPrices = api.getPriser(date.plusDays(1), priceZone);
-        if (nextDayPrices != null && !nextDayPrices.isEmpty()) {
-            prices.addAll(nextDayPrices);
+        // --- Optional: load shift for --bill ---
+        BillSimulator.LoadShift shift = BillSimulator.LoadShift.NONE;
+        if (arguments.containsKey("--shift") || arguments.containsKey("--shift-window")) {
+            try {
+                String share = arguments.getOrDefault("--shift", "0");
+                double value = share.endsWith("%")
+                        ? Double.parseDouble(share.substring(0, share.length() - 1)) / 100
+                        : Double.parseDouble(share);
+                int hours = Integer.parseInt(arguments.getOrDefault("--shift-window", "4h").replace("h", ""));
+                shift = new BillSimulator.LoadShift(value, hours);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Ogiltig lastförskjutning. Ange --shift som andel (0-1 eller 0-100%) och --shift-window som Nh.");
+                return;
+            }
         }
 
-        if (prices == null || prices.isEmpty()) {
-            System.out.println("Inga priser tillgängliga för " + date + " i " + zone);
-            return;
+        // --- Optional: output format ---
+        PriceWriter.Format format = PriceWriter.Format.TEXT;
+        if (arguments.containsKey("--format")) {
+            try {
+                format = PriceWriter.Format.parse(arguments.get("--format"));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Ogiltigt format. Giltiga format: text, csv, json, ndjson.");
+                return;
+            }
         }
 
-        // --- Mean price ---
-        double meanPrice = prices.stream().mapToDouble(ElpriserAPI.Elpris::sekPerKWh).average().orElse(0);
-        System.out.printf("Medelpris: %.3f SEK/kWh%n", meanPrice);
+        // Machine-readable formats own stdout, and so does a bill, whose prices are fetched while rows are
+        // written; status messages from the API go to stderr meanwhile
+        PrintStream stdout = System.out;
+        boolean ownsStdout = format != PriceWriter.Format.TEXT || (!spreadMode && arguments.containsKey("--bill"));
+        if (ownsStdout) {
+            System.setOut(System.err);
+        }
+        try (PriceWriter writer = PriceWriter.create(format, stdout)) {
+            ElpriserAPI api = new ElpriserAPI();
+            if (spreadMode) {
+                spreadReport(api, arguments, date, days, writer);
+            } else if (arguments.containsKey("--bill")) {
+                billReport(api, Path.of(arguments.get("--bill")), priceZone, shift, writer);
+            } else {
+                report(api, arguments, date, priceZone, writer);
+            }
+        } finally {
+            if (ownsStdout) {
+                System.setOut(stdout);
+            }
+        }
+    }
 
-        // --- Cheapest & Most expensive ---
-        ElpriserAPI.Elpris cheapest = Collections.min(prices, Comparator.comparingDouble(ElpriserAPI.Elpris::sekPerKWh));
-        ElpriserAPI.Elpris mostExpensive = Collections.max(prices, Comparator.comparingDouble(ElpriserAPI.Elpris::sekPerKWh));
+    private static void report(ElpriserAPI api, Map<String, String> arguments, LocalDate date,
+                               ElpriserAPI.Prisklass priceZone, PriceWriter writer) {
+        // Initialize API
+        status(writer, "ElpriserAPI initialiserat. Cachning: På");
+        status(writer, "!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
 
-        // Show min & max in test-expected format (HH-HH and öre)
-        int lowStart = cheapest.timeStart().getHour();
-        int lowEnd = (lowStart + 1) % 24;
-        int highStart = mostExpensive.timeStart().getHour();
-        int highEnd = (highStart + 1) % 24;
+        // --- Fetch prices ---
+        // Today plus next day's data (for charging window across midnight), as one view without copying
+        PriceSeries prices = PriceSeries.fetch(api, priceZone, date, date.plusDays(1));
 
-        System.out.printf("Lägsta pris: %02d-%02d -> %.1f öre%n", lowStart, lowEnd, cheapest.sekPerKWh() * 100);
-        System.out.printf("Högsta pris: %02d-%02d -> %.1f öre%n", highStart, highEnd, mostExpensive.sekPerKWh() * 100);
+        if (prices.isEmpty()) {
+            status(writer, "Inga priser tillgängliga för " + date + " i " + priceZone);
+            return;
+        }
+
+        // --- Mean, cheapest & most expensive in one pass ---
+        PriceStats stats = PriceStats.of(prices);
+        writer.mean(stats.mean());
+        writer.cheapest(stats.cheapest());
+        writer.mostExpensive(stats.mostExpensive());
 
         // --- Sorted output ---
         if (arguments.containsKey("--sorted")) {
-            List<ElpriserAPI.Elpris> sorted = new ArrayList<>(prices);
-            sorted.sort(Comparator.comparingDouble(ElpriserAPI.Elpris::sekPerKWh));
-            Collections.reverse(sorted); // match expected order
+            // Most expensive first, earliest first on ties; --limit keeps only the top N
+            int limit = limit(arguments, prices.size());
+            List<ElpriserAPI.Elpris> sorted = PriceRanking.mostExpensive(prices, limit);
 
             for (ElpriserAPI.Elpris p : sorted) {
-                int startHour = p.timeStart().getHour();
-                int endHour = (startHour + 1) % 24;
-                double orePrice = p.sekPerKWh() * 100;
-                String formatted = String.format("%.2f", orePrice).replace('.', ',');
-                System.out.printf("%02d-%02d %s öre%n", startHour, endHour, formatted);
+                writer.price(p);
             }
         }
 
@@ -95,25 +165,90 @@ public class Main {
             String hoursArg = arguments.get("--charging").replace("h", "");
             int hours = Integer.parseInt(hoursArg);
 
-            double bestCost = Double.MAX_VALUE;
-            ElpriserAPI.Elpris bestStart = null;
+            // Prefix sums give every window's cost in O(1); hours are converted to slots for 15-minute prices
+            ChargingIndex index = ChargingIndex.of(prices);
+            int slots = hours * index.slotsPerHour();
+            int bestStart = index.cheapestStart(0, prices.size(), slots);
 
-            for (int i = 0; i <= prices.size() - hours; i++) {
-                List<ElpriserAPI.Elpris> window = prices.subList(i, i + hours);
-                double cost = window.stream().mapToDouble(ElpriserAPI.Elpris::sekPerKWh).sum();
-                if (cost < bestCost) {
-                    bestCost = cost;
-                    bestStart = window.get(0);
-                }
+            if (bestStart >= 0) {
+                writer.chargingWindow(hours, prices.get(bestStart), prices.get(bestStart + slots - 1),
+                        index.windowCost(bestStart, slots));
+            }
+        }
+    }
+
+    // --- Cross-zone spread and arbitrage (all zones) ---
+    private static void spreadReport(ElpriserAPI api, Map<String, String> arguments, LocalDate date,
+                                     int days, PriceWriter writer) {
+        ZoneSpread spread = ZoneSpread.fetch(api, date, date.plusDays(days - 1));
+        if (spread.size() == 0) {
+            status(writer, "Inga priser tillgängliga för alla zoner från " + date);
+            return;
+        }
+
+        // Window length for charge/discharge, given in hours like --charging
+        int hours = 1;
+        if (arguments.containsKey("--charging")) {
+            hours = Integer.parseInt(arguments.get("--charging").replace("h", ""));
+        }
+        // Every slot has the same length once aligned, so the window is the same number of slots everywhere
+        int windowSlots = (int) Math.max(1, hours * 3600L / spread.slotSeconds());
+
+        ZoneSpread.Analysis analysis = spread.analyze(windowSlots);
+        for (int slot = 0; slot < spread.size(); slot++) {
+            writer.spread(spread, analysis, slot);
+        }
+        ElpriserAPI.Prisklass[] zones = ElpriserAPI.Prisklass.values();
+        for (int i = 0; i < zones.length; i++) {
+            for (int j = i + 1; j < zones.length; j++) {
+                writer.correlation(zones[i], zones[j], analysis.correlation()[i][j]);
             }
+        }
+        for (ZoneSpread.Arbitrage arbitrage : analysis.arbitrage()) {
+            writer.arbitrage(arbitrage);
+        }
+    }
 
-            if (bestStart != null) {
-                int startHour = bestStart.timeStart().getHour();
-                double totalOre = bestCost * 100; // convert SEK to öre
-                String formattedOre = String.format("%.1f", totalOre).replace('.', ',');
-                System.out.printf("Påbörja laddning: bästa %dh-fönster startar kl %02d:00 (total kostnad: %s öre)%n",
-                        hours, startHour, formattedOre);
+    // --- Electricity bill from meter readings (one file, or every .csv file in a directory) ---
+    private static void billReport(ElpriserAPI api, Path meterPath, ElpriserAPI.Prisklass priceZone,
+                                   BillSimulator.LoadShift shift, PriceWriter writer) {
+        BillSimulator simulator = new BillSimulator(api, priceZone, shift);
+        try {
+            if (Files.isDirectory(meterPath)) {
+                // Many meters: totals only, computed in parallel and written in file name order
+                List<Path> meterFiles;
+                try (Stream<Path> files = Files.list(meterPath)) {
+                    meterFiles = files.filter(f -> f.getFileName().toString().endsWith(".csv")).sorted().toList();
+                }
+                int threads = Runtime.getRuntime().availableProcessors();
+                for (BillSimulator.Period total : simulator.simulateAll(meterFiles, threads)) {
+                    writer.bill(total);
+                }
+            } else {
+                writer.bill(simulator.simulate(meterPath, writer::bill));
             }
+        } catch (IOException e) {
+            status(writer, "Kunde inte läsa mätarvärden: " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            status(writer, "Kunde inte läsa mätarvärden: " + e.getCause().getMessage());
+        }
+    }
+
+    // --- Status line: flush the writer's rows first so the line is not printed ahead of them ---
+    private static void status(PriceWriter writer, String message) {
+        writer.flush();
+        System.out.println(message);
+    }
+
+    // --- --limit helper: returns defaultLimit when absent and -1 when invalid ---
+    private static int limit(Map<String, String> arguments, int defaultLimit) {
+        if (!arguments.containsKey("--limit")) {
+            return defaultLimit;
+        }
+        try {
+            return Math.max(-1, Integer.parseInt(arguments.get("--limit")));
+        } catch (NumberFormatException e) {
+            return -1;
         }
     }
 
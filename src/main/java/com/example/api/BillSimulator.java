@@ -0,0 +1,441 @@
+package com.example.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Räknar ut vad förbrukningen i en mätarfil kostade, genom att para ihop varje mätvärde med
+ * spotpriset för samma tid i ett elprisområde.
+ * <p>
+ * Mätarfilen är en CSV med tidpunkt och förbrukning i kWh per rad, t.ex.
+ * {@code 2025-10-01T00:00:00+02:00,0.42} eller {@code 2025-10-01 00:00;0,42}. Tidpunkter utan
+ * tidszon tolkas som svensk lokal tid. Rader som inte börjar med en siffra (rubriker) hoppas över.
+ * Varje mätvärde gäller fram till nästa mätvärde, dock högst en timme, så både tim- och
+ * kvartsvärden fungerar och kan blandas med priser i en annan upplösning: ett timvärde fördelas
+ * jämnt över dagens fyra kvartspriser och ett kvartsvärde hamnar i sitt timpris. Ett värde som
+ * går över midnatt delas mellan de två dagarna.
+ * <p>
+ * Filen läses rad för rad och bara en dags förbrukning hålls i minnet, så minnesåtgången
+ * är densamma oavsett hur lång filen är. Resultatet skickas ut per dag och per månad medan filen läses.
+ * Varje dags priser hämtas en gång per simulator och delas av alla filer som körs med den.
+ */
+public final class BillSimulator {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+    // Ett mätvärde antas aldrig gälla längre än så; längre luckor är saknade mätvärden
+    private static final long MAX_READING_SECONDS = 3600;
+
+    private final ElpriserAPI api;
+    private final ElpriserAPI.Prisklass prisklass;
+    private final LoadShift shift;
+    private final PriceKernels kernels;
+    // En hämtning per dag, som alla filer och trådar väntar på; samma listor som API:ets minnes-cache håller
+    private final Map<LocalDate, CompletableFuture<List<ElpriserAPI.Elpris>>> dayPrices = new ConcurrentHashMap<>();
+
+    /**
+     * En lastförskjutning: andelen {@code share} av varje dags förbrukning flyttas till dagens
+     * billigaste sammanhängande fönster på {@code hours} timmar.
+     */
+    public record LoadShift(double share, int hours) {
+
+        /** Ingen förskjutning; den förskjutna kostnaden blir lika med den faktiska. */
+        public static final LoadShift NONE = new LoadShift(0, 1);
+
+        public LoadShift {
+            if (!(share >= 0 && share <= 1)) {
+                throw new IllegalArgumentException("Andelen måste vara mellan 0 och 1: " + share);
+            }
+            if (hours < 1) {
+                throw new IllegalArgumentException("Fönstret måste vara minst en timme: " + hours);
+            }
+        }
+    }
+
+    /** Vilken sorts period en {@link Period} gäller. */
+    public enum Kind { DAY, MONTH, TOTAL }
+
+    /**
+     * Kostnaden för en dag, en månad eller hela filen.
+     *
+     * @param meter mätarens namn, normalt filnamnet
+     * @param start periodens början (midnatt svensk tid)
+     * @param end periodens slut (exklusive)
+     * @param kWh all förbrukning i perioden
+     * @param costSek faktisk kostnad för den förbrukning som hade ett pris
+     * @param shiftedCostSek kostnaden om lastförskjutningen hade gjorts
+     * @param unpricedKWh förbrukning som saknade pris och därför inte ingår i kostnaderna
+     */
+    public record Period(
+        String meter,
+        ElpriserAPI.Prisklass prisklass,
+        Kind kind,
+        ZonedDateTime start,
+        ZonedDateTime end,
+        double kWh,
+        double costSek,
+        double shiftedCostSek,
+        double unpricedKWh
+    ) {
+        /** Vad lastförskjutningen hade sparat; negativ om förbrukningen redan låg billigare. */
+        public double savingSek() {
+            return costSek - shiftedCostSek;
+        }
+    }
+
+    public BillSimulator(ElpriserAPI api, ElpriserAPI.Prisklass prisklass, LoadShift shift) {
+        this.api = api;
+        this.prisklass = prisklass;
+        this.shift = shift;
+        this.kernels = PriceKernels.best();
+    }
+
+    /**
+     * Läser en mätarfil och skickar varje dag och månad till {@code sink} i tidsordning.
+     *
+     * @return totalen för hela filen
+     * @throws IOException om filen inte kan läsas eller innehåller en felaktig rad
+     */
+    public Period simulate(Path meterFile, Consumer<Period> sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(meterFile, StandardCharsets.UTF_8)) {
+            return simulate(meterFile.getFileName().toString(), reader, sink);
+        }
+    }
+
+    /**
+     * Som {@link #simulate(Path, Consumer)} men läser från en öppen ström, som inte stängs.
+     */
+    public Period simulate(String meter, BufferedReader reader, Consumer<Period> sink) throws IOException {
+        Run run = new Run(meter, sink);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.charAt(0) < '0' || line.charAt(0) > '9') {
+                continue;
+            }
+            try {
+                run.reading(line);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IOException(meter + " rad " + lineNumber + ": ogiltigt mätvärde '" + line + "'", e);
+            } catch (IllegalStateException e) {
+                throw new IOException(meter + " rad " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * Räknar ut totalen för många mätarfiler parallellt, med {@code parallelism} trådar.
+     * Varje fil behandlas av en tråd i taget, så bara totalerna samlas in.
+     *
+     * @return en total per fil, i samma ordning som {@code meterFiles}
+     * @throws UncheckedIOException om någon fil inte kan läsas
+     */
+    public List<Period> simulateAll(List<Path> meterFiles, int parallelism) {
+        // Tolkningen är CPU-bunden, så en tråd per kärna räcker; varje dags priser hämtas bara en gång
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<CompletableFuture<Period>> futures = new ArrayList<>(meterFiles.size());
+            for (Path meterFile : meterFiles) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return simulate(meterFile, period -> { });
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+            }
+            List<Period> totals = new ArrayList<>(futures.size());
+            for (CompletableFuture<Period> future : futures) {
+                try {
+                    totals.add(future.join());
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof UncheckedIOException io) {
+                        throw io;
+                    }
+                    throw e;
+                }
+            }
+            return totals;
+        }
+    }
+
+    /** En dags priser. Den första tråden som behöver dagen hämtar den, övriga väntar på samma hämtning. */
+    private List<ElpriserAPI.Elpris> prices(LocalDate date) {
+        CompletableFuture<List<ElpriserAPI.Elpris>> created = new CompletableFuture<>();
+        CompletableFuture<List<ElpriserAPI.Elpris>> existing = dayPrices.putIfAbsent(date, created);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            created.complete(api.getPriser(date, prisklass));
+        } catch (RuntimeException e) {
+            // Låt nästa fil försöka igen i stället för att alla får samma fel
+            dayPrices.remove(date, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+        return created.join();
+    }
+
+    /** Tillståndet för en fil: aktuell dag, månad och total. */
+    private final class Run {
+
+        private final String meter;
+        private final Consumer<Period> sink;
+
+        // Aktuell dags priser och förbrukning per prisperiod; arrayerna återanvänds mellan dagarna
+        private LocalDate day;
+        private long dayStartSecond;
+        private long dayEndSecond;
+        private long[] slotStart = new long[100];
+        private long[] slotEnd = new long[100];
+        private double[] price = new double[100];
+        private double[] usage = new double[100];
+        private int slots;
+        private int cursor;
+        private double dayKWh;
+        private double dayUnpriced;
+
+        private final Totals month = new Totals();
+        private final Totals total = new Totals();
+        private LocalDate monthStart;
+        private LocalDate firstDay;
+
+        // Mätvärdet väntar på nästa rad, som avgör hur länge det gäller
+        private boolean pending;
+        private long pendingStart;
+        private double pendingKWh;
+        private long lastLength = MAX_READING_SECONDS;
+        private boolean previousLocal;
+
+        Run(String meter, Consumer<Period> sink) {
+            this.meter = meter;
+            this.sink = sink;
+        }
+
+        void reading(String line) {
+            int separator = line.indexOf(';');
+            boolean decimalComma = separator >= 0;
+            if (separator < 0) {
+                separator = line.indexOf(',');
+            }
+            if (separator < 0) {
+                throw new NumberFormatException("saknar avgränsare");
+            }
+            long start = epochSecond(line.substring(0, separator).trim());
+            String value = line.substring(separator + 1).trim();
+            int end = value.indexOf(decimalComma ? ';' : ',');
+            if (end >= 0) {
+                value = value.substring(0, end).trim();
+            }
+            double kWh = Double.parseDouble(decimalComma ? value.replace(',', '.') : value);
+
+            if (pending) {
+                if (start <= pendingStart) {
+                    throw new IllegalStateException("mätvärdena är inte i tidsordning");
+                }
+                lastLength = Math.min(start - pendingStart, MAX_READING_SECONDS);
+                add(pendingStart, pendingStart + lastLength, pendingKWh);
+            }
+            pending = true;
+            pendingStart = start;
+            pendingKWh = kWh;
+        }
+
+        private long epochSecond(String timestamp) {
+            if (timestamp.length() > 19) {
+                previousLocal = false;
+                return Timestamps.epochSecond(timestamp);
+            }
+            LocalDateTime local = LocalDateTime.parse(timestamp.replace(' ', 'T'));
+            ZonedDateTime zoned = local.atZone(STOCKHOLM);
+            // Timmen som upprepas när sommartiden slutar: andra gången är det den senare förskjutningen
+            if (previousLocal && pending && zoned.toEpochSecond() <= pendingStart) {
+                zoned = zoned.withLaterOffsetAtOverlap();
+            }
+            previousLocal = true;
+            return zoned.toEpochSecond();
+        }
+
+        private void add(long start, long end, double kWh) {
+            // Ett mätvärde som går över midnatt delas i proportion till tiden; resten prissätts
+            // med nästa dags priser
+            while (true) {
+                enterDayOf(start);
+                if (end <= dayEndSecond) {
+                    addWithinDay(start, end, kWh);
+                    return;
+                }
+                double head = kWh * (dayEndSecond - start) / (end - start);
+                addWithinDay(start, dayEndSecond, head);
+                kWh -= head;
+                start = dayEndSecond;
+            }
+        }
+
+        private void enterDayOf(long start) {
+            // Datumet räknas bara om när värdet hamnar utanför aktuellt dygn
+            if (day == null || start < dayStartSecond || start >= dayEndSecond) {
+                LocalDate date = LocalDate.ofInstant(Instant.ofEpochSecond(start), STOCKHOLM);
+                if (day != null) {
+                    finishDay(date);
+                }
+                startDay(date);
+            }
+        }
+
+        private void addWithinDay(long start, long end, double kWh) {
+            dayKWh += kWh;
+            if (slots == 0) {
+                dayUnpriced += kWh;
+                return;
+            }
+            // Värdena kommer i tidsordning, så markören behöver aldrig backa
+            while (cursor < slots && slotEnd[cursor] <= start) {
+                cursor++;
+            }
+            long length = end - start;
+            long covered = 0;
+            for (int j = cursor; j < slots && slotStart[j] < end; j++) {
+                long overlap = Math.min(end, slotEnd[j]) - Math.max(start, slotStart[j]);
+                if (overlap > 0) {
+                    usage[j] += kWh * overlap / length;
+                    covered += overlap;
+                }
+            }
+            if (covered < length) {
+                dayUnpriced += kWh * (length - covered) / length;
+            }
+        }
+
+        private void startDay(LocalDate date) {
+            day = date;
+            dayStartSecond = date.atStartOfDay(STOCKHOLM).toEpochSecond();
+            dayEndSecond = date.plusDays(1).atStartOfDay(STOCKHOLM).toEpochSecond();
+            if (firstDay == null) {
+                firstDay = date;
+                monthStart = date.withDayOfMonth(1);
+            }
+            List<ElpriserAPI.Elpris> prices = prices(date);
+            slots = prices == null ? 0 : prices.size();
+            if (slots > price.length) {
+                slotStart = new long[slots];
+                slotEnd = new long[slots];
+                price = new double[slots];
+                usage = new double[slots];
+            }
+            for (int i = 0; i < slots; i++) {
+                ElpriserAPI.Elpris p = prices.get(i);
+                slotStart[i] = p.timeStart().toEpochSecond();
+                slotEnd[i] = p.timeEnd().toEpochSecond();
+                price[i] = p.sekPerKWh();
+            }
+            Arrays.fill(usage, 0, slots, 0.0);
+            cursor = 0;
+            dayKWh = 0;
+            dayUnpriced = 0;
+        }
+
+        /** Avslutar aktuell dag, och månaden om {@code next} ligger i en annan månad (null vid filens slut). */
+        private void finishDay(LocalDate next) {
+            double cost = slots == 0 ? 0 : kernels.dot(usage, price, 0, slots);
+            double shifted = cost;
+            if (slots > 0 && shift.share() > 0) {
+                double pricedKWh = kernels.sum(usage, 0, slots);
+                shifted = (1 - shift.share()) * cost + shift.share() * pricedKWh * cheapestWindowMean();
+            }
+            emit(Kind.DAY, day, day.plusDays(1), dayKWh, cost, shifted, dayUnpriced);
+            month.add(dayKWh, cost, shifted, dayUnpriced);
+            total.add(dayKWh, cost, shifted, dayUnpriced);
+
+            if (next == null || next.getYear() != day.getYear() || next.getMonth() != day.getMonth()) {
+                LocalDate monthEnd = day.withDayOfMonth(1).plusMonths(1);
+                emit(Kind.MONTH, monthStart, monthEnd, month.kWh, month.cost, month.shifted, month.unpriced);
+                month.reset();
+                if (next != null) {
+                    monthStart = next.withDayOfMonth(1);
+                }
+            }
+        }
+
+        /** Medelpriset i dagens billigaste sammanhängande fönster, med ett glidande fönster. */
+        private double cheapestWindowMean() {
+            long slotSeconds = Math.max(1, slotEnd[0] - slotStart[0]);
+            int window = (int) Math.min(slots, Math.max(1, shift.hours() * 3600L / slotSeconds));
+            double sum = kernels.sum(price, 0, window);
+            double best = sum;
+            for (int i = window; i < slots; i++) {
+                sum += price[i] - price[i - window];
+                best = Math.min(best, sum);
+            }
+            return best / window;
+        }
+
+        Period finish() {
+            if (pending) {
+                add(pendingStart, pendingStart + lastLength, pendingKWh);
+                pending = false;
+            }
+            if (day == null) {
+                ZonedDateTime none = ZonedDateTime.ofInstant(Instant.EPOCH, STOCKHOLM);
+                return new Period(meter, prisklass, Kind.TOTAL, none, none, 0, 0, 0, 0);
+            }
+            finishDay(null);
+            return period(Kind.TOTAL, firstDay, day.plusDays(1), total.kWh, total.cost, total.shifted, total.unpriced);
+        }
+
+        private void emit(Kind kind, LocalDate from, LocalDate to, double kWh, double cost,
+                          double shifted, double unpriced) {
+            sink.accept(period(kind, from, to, kWh, cost, shifted, unpriced));
+        }
+
+        private Period period(Kind kind, LocalDate from, LocalDate to, double kWh, double cost,
+                              double shifted, double unpriced) {
+            return new Period(meter, prisklass, kind, from.atStartOfDay(STOCKHOLM), to.atStartOfDay(STOCKHOLM),
+                    kWh, cost, shifted, unpriced);
+        }
+    }
+
+    /** Löpande summor för en månad eller en hel fil. */
+    private static final class Totals {
+        double kWh;
+        double cost;
+        double shifted;
+        double unpriced;
+
+        void add(double kWh, double cost, double shifted, double unpriced) {
+            this.kWh += kWh;
+            this.cost += cost;
+            this.shifted += shifted;
+            this.unpriced += unpriced;
+        }
+
+        void reset() {
+            kWh = 0;
+            cost = 0;
+            shifted = 0;
+            unpriced = 0;
+        }
+    }
+}
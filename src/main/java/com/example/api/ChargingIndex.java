@@ -0,0 +1,184 @@
+package com.example.api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index över en tidsordnad prisserie för att hitta billigaste sammanhängande laddfönster.
+ * <p>
+ * Prefixsummor ger kostnaden för valfritt fönster i O(1). För varje fönsterlängd byggs vid första
+ * behov en gles tabell (sparse table) över fönsterkostnaderna, så billigaste fönster som börjar
+ * inom ett godtyckligt intervall hittas i O(1) i stället för O(n·k). Vid lika kostnad väljs det
+ * tidigaste fönstret; fönster vars prefixsummor ligger inom avrundningsbruset summeras direkt innan
+ * de jämförs, så att lika fönster sent i en lång serie bedöms som lika. Indexet är oföränderligt och
+ * kan frågas från många trådar samtidigt.
+ * <p>
+ * Serien får ha luckor, t.ex. en dag som saknas mitt i en {@link PriceSeries}: varje period har
+ * sin start- och sluttid, och ett fönster som skulle gå över en lucka (där en period inte börjar
+ * när den förra slutar) väljs aldrig.
+ */
+public final class ChargingIndex {
+
+    // Relativt avrundningsfel i prefixsummorna som ryms med god marginal, även för långa serier
+    private static final double TIE_TOLERANCE = 1e-9;
+
+    private final long[] starts;
+    private final long[] ends;
+    // prefix[i] = summan av de i första priserna (SEK/kWh)
+    private final double[] prefix;
+    private final double[] prices;
+    // Fönsterkostnader närmare varandra än så kan ha bytt ordning av avrundning i prefixsummorna
+    private final double tieTolerance;
+    // breaks[i] = antal luckor mellan perioderna 0 .. i
+    private final int[] breaks;
+    private final List<ElpriserAPI.Elpris> priser;
+    // Fönsterlängd -> gles tabell över fönsterkostnaderna
+    private final Map<Integer, int[][]> tables = new ConcurrentHashMap<>();
+
+    private ChargingIndex(List<ElpriserAPI.Elpris> priser) {
+        int n = priser.size();
+        this.priser = priser;
+        this.starts = new long[n];
+        this.ends = new long[n];
+        this.prefix = new double[n + 1];
+        this.prices = new double[n];
+        this.breaks = new int[n];
+        double magnitude = 0;
+        for (int i = 0; i < n; i++) {
+            ElpriserAPI.Elpris pris = priser.get(i);
+            starts[i] = pris.timeStart().toEpochSecond();
+            ends[i] = pris.timeEnd().toEpochSecond();
+            prices[i] = pris.sekPerKWh();
+            prefix[i + 1] = prefix[i] + prices[i];
+            magnitude += Math.abs(prices[i]);
+            if (i > 0) {
+                breaks[i] = breaks[i - 1] + (starts[i] == ends[i - 1] ? 0 : 1);
+            }
+        }
+        this.tieTolerance = TIE_TOLERANCE * magnitude;
+    }
+
+    /**
+     * Bygger ett index över en tidsordnad serie, t.ex. en {@link PriceSeries} med idag och imorgon.
+     * Listan används som den är och får inte ändras.
+     */
+    public static ChargingIndex of(List<ElpriserAPI.Elpris> priser) {
+        return new ChargingIndex(priser);
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public ElpriserAPI.Elpris get(int slot) {
+        return priser.get(slot);
+    }
+
+    /** Antal perioder per timme, utifrån den första periodens längd (1 för timpriser, 4 för kvartspriser). */
+    public int slotsPerHour() {
+        if (starts.length == 0) {
+            return 1;
+        }
+        long seconds = ends[0] - starts[0];
+        return seconds > 0 && seconds < 3600 ? (int) (3600 / seconds) : 1;
+    }
+
+    /** Summan av priserna (SEK/kWh) för {@code slots} perioder från och med {@code start}. */
+    public double windowCost(int start, int slots) {
+        return prefix[start + slots] - prefix[start];
+    }
+
+    /** Om de {@code slots} perioderna från och med {@code start} följer direkt på varandra, utan lucka. */
+    public boolean isContiguous(int start, int slots) {
+        return breaks[start + slots - 1] == breaks[start];
+    }
+
+    /** Första perioden som börjar vid eller efter {@code epochSecond}, eller {@link #size()} om ingen gör det. */
+    public int firstSlotAtOrAfter(long epochSecond) {
+        int i = Arrays.binarySearch(starts, epochSecond);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /** Antal perioder från början av serien som slutar senast vid {@code epochSecond}. */
+    public int slotsEndingBy(long epochSecond) {
+        int i = Arrays.binarySearch(ends, epochSecond);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    /**
+     * Billigaste fönstret på {@code slots} perioder i följd som ryms helt inom {@code [from, to)}.
+     *
+     * @return fönstrets första period, eller -1 om inget fönster ryms
+     */
+    public int cheapestStart(int from, int to, int slots) {
+        int last = to - slots; // sista möjliga start
+        if (slots < 1 || from < 0 || to > starts.length || last < from) {
+            return -1;
+        }
+        int[][] table = table(slots);
+        int level = 31 - Integer.numberOfLeadingZeros(last - from + 1);
+        int best = better(table[level][from], table[level][last - (1 << level) + 1], slots);
+        // Går även det bästa fönstret över en lucka gör alla i intervallet det
+        return isContiguous(best, slots) ? best : -1;
+    }
+
+    /** Bygger tabellerna för fönsterlängderna i förväg, t.ex. innan många trådar börjar fråga. */
+    public void prepare(int slots) {
+        if (slots >= 1 && slots <= starts.length) {
+            table(slots);
+        }
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    private int[][] table(int slots) {
+        return tables.computeIfAbsent(slots, this::buildTable);
+    }
+
+    /** table[j][i] är billigaste start bland {@code i .. i + 2^j - 1}. */
+    private int[][] buildTable(int slots) {
+        int windows = starts.length - slots + 1;
+        int levels = 32 - Integer.numberOfLeadingZeros(windows);
+        int[][] table = new int[levels][];
+        table[0] = new int[windows];
+        for (int i = 0; i < windows; i++) {
+            table[0][i] = i;
+        }
+        for (int j = 1; j < levels; j++) {
+            int half = 1 << (j - 1);
+            int count = windows - (1 << j) + 1;
+            int[] previous = table[j - 1];
+            int[] row = new int[count];
+            for (int i = 0; i < count; i++) {
+                row[i] = better(previous[i], previous[i + half], slots);
+            }
+            table[j] = row;
+        }
+        return table;
+    }
+
+    /** Den billigaste av två starter, den tidigaste vid lika kostnad. Fönster över en lucka kostar oändligt. */
+    private int better(int a, int b, int slots) {
+        double costA = isContiguous(a, slots) ? windowCost(a, slots) : Double.POSITIVE_INFINITY;
+        double costB = isContiguous(b, slots) ? windowCost(b, slots) : Double.POSITIVE_INFINITY;
+        if (Math.abs(costA - costB) <= tieTolerance) {
+            // För nära för prefixsummorna: samma priser i samma ordning ger då exakt samma summa
+            costA = directCost(a, slots);
+            costB = directCost(b, slots);
+        }
+        if (costB < costA || (costB == costA && b < a)) {
+            return b;
+        }
+        return a;
+    }
+
+    private double directCost(int start, int slots) {
+        double sum = 0;
+        for (int i = start; i < start + slots; i++) {
+            sum += prices[i];
+        }
+        return sum;
+    }
+}
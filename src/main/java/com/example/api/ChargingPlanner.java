@@ -0,0 +1,224 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Laddplaner för en hel fordonsflotta: varje fordon har en inkopplingstid, en avgångstid, ett antal
+ * timmar som måste laddas i följd och en laddeffekt.
+ * <p>
+ * Ett {@link ChargingIndex} byggs en gång per elprisområde och prisserie, och varje fordon besvaras
+ * sedan med två binärsökningar och en O(1)-fråga mot indexet, parallellt för hela flottan.
+ * <p>
+ * Med en gemensam kapacitetsgräns per område och period (kW) hänger fordonen ihop och planeras
+ * i stället i tur och ordning efter avgångstid (tidigast först): varje fordon får det billigaste fönstret
+ * där gränsen inte överskrids av redan planerade fordon. Områdena planeras fortfarande parallellt.
+ */
+public final class ChargingPlanner {
+
+    private final Map<ElpriserAPI.Prisklass, ChargingIndex> indexes;
+
+    /**
+     * Ett fordon som ska laddas {@code hours} timmar i följd mellan {@code plugIn} och {@code departure}.
+     */
+    public record Vehicle(
+        String id,
+        ElpriserAPI.Prisklass prisklass,
+        ZonedDateTime plugIn,
+        ZonedDateTime departure,
+        int hours,
+        double powerKW
+    ) {
+        public Vehicle {
+            if (hours < 1) {
+                throw new IllegalArgumentException("Antal timmar måste vara minst 1: " + hours);
+            }
+            if (!(powerKW > 0)) {
+                throw new IllegalArgumentException("Laddeffekten måste vara större än 0: " + powerKW);
+            }
+        }
+    }
+
+    /**
+     * En laddplan. Om inget fönster fanns är {@code start} och {@code end} null och kostnaden NaN.
+     *
+     * @param costSek energikostnaden för fönstret vid fordonets laddeffekt
+     */
+    public record Plan(Vehicle vehicle, ZonedDateTime start, ZonedDateTime end, double costSek) {
+        public boolean scheduled() {
+            return start != null;
+        }
+    }
+
+    private ChargingPlanner(Map<ElpriserAPI.Prisklass, ChargingIndex> indexes) {
+        this.indexes = indexes;
+    }
+
+    /**
+     * Skapar en planerare av tidsordnade prisserier per område, t.ex. {@link PriceSeries} för idag och imorgon.
+     */
+    public static ChargingPlanner of(Map<ElpriserAPI.Prisklass, ? extends List<ElpriserAPI.Elpris>> prices) {
+        Map<ElpriserAPI.Prisklass, ChargingIndex> indexes = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        prices.forEach((prisklass, priser) -> indexes.put(prisklass, ChargingIndex.of(priser)));
+        return new ChargingPlanner(indexes);
+    }
+
+    /**
+     * Hämtar dagarna från och med {@code from} till och med {@code toInclusive} för områdena och bygger indexen.
+     */
+    public static ChargingPlanner fetch(ElpriserAPI api, Collection<ElpriserAPI.Prisklass> zones,
+                                        LocalDate from, LocalDate toInclusive) {
+        Map<ElpriserAPI.Prisklass, ChargingIndex> indexes = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        for (ElpriserAPI.Prisklass prisklass : zones) {
+            indexes.put(prisklass, ChargingIndex.of(PriceSeries.fetch(api, prisklass, from, toInclusive)));
+        }
+        return new ChargingPlanner(indexes);
+    }
+
+    /** Billigaste fönstret för ett fordon, utan kapacitetsgräns. */
+    public Plan plan(Vehicle vehicle) {
+        ChargingIndex index = indexes.get(vehicle.prisklass());
+        if (index == null) {
+            return unscheduled(vehicle);
+        }
+        int slots = vehicle.hours() * index.slotsPerHour();
+        int from = index.firstSlotAtOrAfter(vehicle.plugIn().toEpochSecond());
+        int to = index.slotsEndingBy(vehicle.departure().toEpochSecond());
+        return toPlan(vehicle, index, index.cheapestStart(from, to, slots), slots);
+    }
+
+    /**
+     * Planerar alla fordon parallellt, utan kapacitetsgräns.
+     *
+     * @return en plan per fordon, i samma ordning som {@code vehicles}
+     */
+    public List<Plan> planAll(List<Vehicle> vehicles) {
+        prepare(vehicles);
+        Plan[] plans = new Plan[vehicles.size()];
+        IntStream.range(0, plans.length).parallel().forEach(i -> plans[i] = plan(vehicles.get(i)));
+        return Arrays.asList(plans);
+    }
+
+    /**
+     * Planerar alla fordon med en gemensam gräns för summan av laddeffekterna per område och period.
+     * Fordon med tidigast avgång planeras först; ett fordon som inte ryms någonstans blir oplanerat.
+     *
+     * @param capacityKW högsta sammanlagda laddeffekt per område och period
+     * @return en plan per fordon, i samma ordning som {@code vehicles}
+     */
+    public List<Plan> planAll(List<Vehicle> vehicles, double capacityKW) {
+        prepare(vehicles);
+        Map<ElpriserAPI.Prisklass, List<Integer>> perZone = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        for (int i = 0; i < vehicles.size(); i++) {
+            perZone.computeIfAbsent(vehicles.get(i).prisklass(), k -> new ArrayList<>()).add(i);
+        }
+        Plan[] plans = new Plan[vehicles.size()];
+        perZone.entrySet().parallelStream().forEach(entry -> {
+            ChargingIndex index = indexes.get(entry.getKey());
+            List<Integer> order = entry.getValue();
+            if (index == null) {
+                order.forEach(i -> plans[i] = unscheduled(vehicles.get(i)));
+                return;
+            }
+            // Stabil sortering: lika avgångstid behåller inmatningsordningen
+            order.sort(Comparator.comparingLong(i -> vehicles.get(i).departure().toEpochSecond()));
+            double[] load = new double[index.size()];
+            for (int i : order) {
+                plans[i] = planWithin(vehicles.get(i), index, load, capacityKW);
+            }
+        });
+        return Arrays.asList(plans);
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    private Plan planWithin(Vehicle vehicle, ChargingIndex index, double[] load, double capacityKW) {
+        int slots = vehicle.hours() * index.slotsPerHour();
+        int from = index.firstSlotAtOrAfter(vehicle.plugIn().toEpochSecond());
+        int to = index.slotsEndingBy(vehicle.departure().toEpochSecond());
+        double power = vehicle.powerKW();
+
+        // Oftast ryms det billigaste fönstret; kontrollera det först
+        int start = index.cheapestStart(from, to, slots);
+        if (start >= 0 && !fits(load, start, slots, power, capacityKW)) {
+            start = cheapestFitting(index, load, from, to, slots, power, capacityKW);
+        }
+        if (start >= 0) {
+            for (int s = start; s < start + slots; s++) {
+                load[s] += power;
+            }
+        }
+        return toPlan(vehicle, index, start, slots);
+    }
+
+    private static boolean fits(double[] load, int start, int slots, double power, double capacityKW) {
+        for (int s = start; s < start + slots; s++) {
+            if (load[s] + power > capacityKW) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Glidande fönster som räknar fulla perioder, så varje möjlig start prövas i O(1). */
+    private static int cheapestFitting(ChargingIndex index, double[] load, int from, int to, int slots,
+                                       double power, double capacityKW) {
+        int full = 0;
+        int best = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int s = from; s < to; s++) {
+            if (load[s] + power > capacityKW) {
+                full++;
+            }
+            int start = s - slots + 1;
+            if (start < from) {
+                continue;
+            }
+            if (start > from && load[start - 1] + power > capacityKW) {
+                full--;
+            }
+            if (full == 0 && index.isContiguous(start, slots)) {
+                double cost = index.windowCost(start, slots);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = start;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void prepare(List<Vehicle> vehicles) {
+        // Bygg tabellerna innan trådarna börjar, så ingen tråd väntar på en annans bygge
+        vehicles.stream()
+                .map(v -> Map.entry(v.prisklass(), v.hours()))
+                .distinct()
+                .forEach(e -> {
+                    ChargingIndex index = indexes.get(e.getKey());
+                    if (index != null) {
+                        index.prepare(e.getValue() * index.slotsPerHour());
+                    }
+                });
+    }
+
+    private static Plan toPlan(Vehicle vehicle, ChargingIndex index, int start, int slots) {
+        if (start < 0) {
+            return unscheduled(vehicle);
+        }
+        double slotHours = 1.0 / index.slotsPerHour();
+        double cost = index.windowCost(start, slots) * vehicle.powerKW() * slotHours;
+        return new Plan(vehicle, index.get(start).timeStart(), index.get(start + slots - 1).timeEnd(), cost);
+    }
+
+    private static Plan unscheduled(Vehicle vehicle) {
+        return new Plan(vehicle, null, null, Double.NaN);
+    }
+}
@@ -5,14 +5,20 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
 /**
@@ -25,6 +31,10 @@ public final class ElpriserAPI {
     private static final String API_BASE_URL = "https://www.elprisetjustnu.se/api/v1/prices";
     private static final DateTimeFormatter URL_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM-dd");
 
+    // Priser revideras bara nära leveransdagen, så senast publicerade serie glöms för dagar
+    // mer än så här långt före den senaste dagen som publicerats
+    private static final int PUBLISH_HORIZON_DAYS = 2;
+
     // En återanvändbar HttpClient-instans
     private final HttpClient httpClient;
     
@@ -34,6 +44,24 @@ public final class ElpriserAPI {
     // Ett enkelt minnes-cache. Nyckeln är en kombination av datum och prisklass, t.ex. "2025-08-30_SE3"
     private final Map<String, List<Elpris>> inMemoryCache;
 
+    // Systemegenskap med sökväg till en delad cache-fil, t.ex. -Delpriser.sharedCache=/tmp/elpriser.cache
+    private static final String SHARED_CACHE_PROPERTY = "elpriser.sharedCache";
+
+    // Valfri cache i en minnesmappad fil som delas av alla JVM:er på maskinen, annars null
+    private final SharedPriceCache sharedCache;
+
+    // En publicerare per prisklass som skickar nya eller ändrade prisserier till prenumeranter
+    private final Map<Prisklass, SubmissionPublisher<Prisuppdatering>> publishers;
+
+    // Senast publicerade serie per cachenyckel, för att bara skicka faktiska ändringar
+    private final Map<String, Prisuppdatering> lastPublished;
+
+    // Senaste dagen (epochDay) som publicerats; dagar före den minus PUBLISH_HORIZON_DAYS glöms
+    private final LongAccumulator newestPublishedDay = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    // Dags-, vecko- och månadsaggregat som uppdateras när en ny dag läggs i cachen
+    private final PriceRollups rollups;
+
     /**
      * En record som representerar ett enskilt elpris för en given tidsperiod.
      * Användningen av 'record' genererar automatiskt constructor, getters, equals, hashCode och toString.
@@ -46,6 +74,15 @@ public final class ElpriserAPI {
         ZonedDateTime timeEnd
     ) {}
 
+    /**
+     * En ny eller ändrad prisserie för en dag och prisklass, som skickas till prenumeranter.
+     */
+    public record Prisuppdatering(
+        LocalDate datum,
+        Prisklass prisklass,
+        List<Elpris> priser
+    ) {}
+
     /**
      * Enum för de svenska elprisområdena för typsäkerhet.
      */
@@ -63,6 +100,9 @@ public final class ElpriserAPI {
     // New: map mock responses per date, so tests can provide different JSON per day
     private static java.util.Map<LocalDate, String> datedMockResponses = new java.util.HashMap<>();
 
+    // Mock responses generated per date and price zone (used by load tests)
+    private static volatile BiFunction<LocalDate, Prisklass, String> mockResponseFunction = null;
+
     /**
      * FOR TESTS ONLY: Sets a mock JSON response to be returned by the next API call.
      * This bypasses the actual network request.
@@ -84,12 +124,22 @@ public final class ElpriserAPI {
         }
     }
 
+    /**
+     * FOR TESTS ONLY: Generates mock JSON per date and price zone on demand, e.g. from a
+     * synthetic price generator. Used when no response is set for the specific date.
+     * The function may be called from several threads at once.
+     */
+    public static void setMockResponseFunction(BiFunction<LocalDate, Prisklass, String> responseFunction) {
+        mockResponseFunction = responseFunction;
+    }
+
     /**
      * FOR TESTS ONLY: Clears the mock response, causing the API to resume
      * making real network requests. This should be called after each test.
      */
     public static void clearMockResponse() {
         mockResponseSupplier = null;
+        mockResponseFunction = null;
         datedMockResponses.clear();
     }
     // --- End of test fields ---
@@ -106,12 +156,31 @@ public final class ElpriserAPI {
      * @param enableCaching Sätt till true för att aktivera minnes-cachning, annars false.
      */
     public ElpriserAPI(boolean enableCaching) {
+        this(enableCaching, sharedCacheFromProperty());
+    }
+
+    /**
+     * Konstruktor som dessutom använder en delad cache-fil, se {@link SharedPriceCache}.
+     * Den delade cachen används bara om cachning är aktiverad.
+     * @param enableCaching Sätt till true för att aktivera cachning, annars false.
+     * @param sharedCacheFile Sökväg till den delade cache-filen, eller null för att inte använda någon.
+     */
+    public ElpriserAPI(boolean enableCaching, Path sharedCacheFile) {
         this.httpClient = HttpClient.newBuilder()
                 .followRedirects(HttpClient.Redirect.NORMAL)
                 .build();
         this.cachingEnabled = enableCaching;
         // ConcurrentHashMap är trådsäker om klassen skulle användas i flera trådar
         this.inMemoryCache = new ConcurrentHashMap<>();
+        this.sharedCache = enableCaching && sharedCacheFile != null ? openSharedCache(sharedCacheFile) : null;
+        // SubmissionPublisher levererar via en gemensam trådpool med en buffert per prenumerant,
+        // så tusentals prenumeranter kräver inte en tråd var
+        this.publishers = new EnumMap<>(Prisklass.class);
+        for (Prisklass prisklass : Prisklass.values()) {
+            publishers.put(prisklass, new SubmissionPublisher<>());
+        }
+        this.lastPublished = new ConcurrentHashMap<>();
+        this.rollups = new PriceRollups(this::getPriser);
         System.out.println("ElpriserAPI initialiserat. Cachning: " + (enableCaching ? "På" : "Av"));
     }
 
@@ -138,7 +207,8 @@ public final class ElpriserAPI {
      *
      * @param datum Ett {@link LocalDate}-objekt som representerar dagen att hämta priser för.
      * @param prisklass Elprisområdet (SE1, SE2, SE3 eller SE4).
-     * @return En lista av {@link Elpris}-objekt, eller en tom lista om data inte kunde hämtas.
+     * @return En oföränderlig lista av {@link Elpris}-objekt, eller en tom lista om data inte kunde hämtas.
+     *         Använd {@link PriceSeries} för att sätta ihop flera dagar.
      */
     public List<Elpris> getPriser(LocalDate datum, Prisklass prisklass) {
         String cacheKey = getCacheKey(datum, prisklass);
@@ -149,25 +219,89 @@ public final class ElpriserAPI {
             return inMemoryCache.get(cacheKey);
         }
 
+        // Steg 1b: Kolla den delade cachen som andra processer på maskinen kan ha fyllt
+        if (cachingEnabled && sharedCache != null) {
+            List<Elpris> delade = sharedCache.get(datum, prisklass);
+            if (delade != null) {
+                System.out.println("Hämtar från delad cache för " + cacheKey);
+                cache(cacheKey, datum, prisklass, delade);
+                return delade;
+            }
+        }
+
         // Steg 2: Försök ladda från disk-cache (framtida implementation)
         var priserFrånDisk = loadFromDiskCache(cacheKey);
         if (cachingEnabled && priserFrånDisk != null && !priserFrånDisk.isEmpty()) {
              System.out.println("Hämtar från disk-cache för " + cacheKey);
-             inMemoryCache.put(cacheKey, priserFrånDisk); // Lägg i minnes-cachen för snabbare åtkomst nästa gång
+             cache(cacheKey, datum, prisklass, priserFrånDisk); // Lägg i minnes-cachen för snabbare åtkomst nästa gång
              return priserFrånDisk;
         }
 
+        return fetch(datum, prisklass, cacheKey);
+    }
+
+    /**
+     * Hämtar elpriser på nytt utan att titta i cachen, t.ex. för att upptäcka reviderade priser.
+     * Cachen uppdateras och prenumeranter får den nya serien om den har ändrats.
+     *
+     * @param datum Dagen att hämta priser för.
+     * @param prisklass Elprisområdet (SE1, SE2, SE3 eller SE4).
+     * @return En lista av {@link Elpris}-objekt, eller en tom lista om data inte kunde hämtas.
+     */
+    public List<Elpris> refresh(LocalDate datum, Prisklass prisklass) {
+        return fetch(datum, prisklass, getCacheKey(datum, prisklass));
+    }
+
+    /**
+     * Returnerar en {@link Flow.Publisher} som skickar nya eller ändrade prisserier för en prisklass
+     * när de hämtas, via {@link #getPriser} eller {@link #refresh}. Serier som redan fanns i cachen skickas inte.
+     * <p>
+     * Prenumeranter styr takten med {@code request(n)}. En prenumerant vars buffert är full
+     * hoppar över uppdateringen i stället för att blockera hämtningen.
+     */
+    public Flow.Publisher<Prisuppdatering> getPublisher(Prisklass prisklass) {
+        return publishers.get(prisklass);
+    }
+
+    /**
+     * Förberäknad dags-, vecko- och månadsstatistik för långa intervall, se {@link PriceRollups}.
+     * Aggregaten fylls på med varje dag som läggs i cachen och med dagar som frågorna själva hämtar.
+     */
+    public PriceRollups getRollups() {
+        return rollups;
+    }
+
+    /**
+     * Avslutar alla prenumerationer med {@code onComplete}. Inga fler uppdateringar skickas efter detta.
+     */
+    public void closePublishers() {
+        publishers.values().forEach(SubmissionPublisher::close);
+    }
+
+    /** ENDAST FÖR TEST: antal serier vars senast publicerade version finns kvar. */
+    int publishedCount() {
+        return lastPublished.size();
+    }
+
+    private List<Elpris> fetch(LocalDate datum, Prisklass prisklass, String cacheKey) {
         // Check for a mock response before making a network call ---
-        if (mockResponseSupplier != null || !datedMockResponses.isEmpty()) {
+        BiFunction<LocalDate, Prisklass, String> responseFunction = mockResponseFunction;
+        if (mockResponseSupplier != null || !datedMockResponses.isEmpty() || responseFunction != null) {
             System.out.println("!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
-            String mockJson = datedMockResponses.getOrDefault(datum, mockResponseSupplier == null ? null : mockResponseSupplier.get());
+            String mockJson = datedMockResponses.get(datum);
+            if (mockJson == null && responseFunction != null) {
+                mockJson = responseFunction.apply(datum, prisklass);
+            } else if (mockJson == null && mockResponseSupplier != null) {
+                mockJson = mockResponseSupplier.get();
+            }
             if (mockJson == null || mockJson.isBlank()) {
                 return Collections.emptyList();
             }
             List<Elpris> priser = parseSimpleJson(mockJson);
             if (cachingEnabled && !priser.isEmpty()) {
-                inMemoryCache.put(cacheKey, priser);
+                cache(cacheKey, datum, prisklass, priser);
             }
+            publishIfChanged(datum, prisklass, cacheKey, priser);
             return priser;
         }
         // --- End of mock check ---
@@ -193,9 +327,11 @@ public final class ElpriserAPI {
 
             // Steg 4: Spara i cache om cachning är på
             if (cachingEnabled && !priser.isEmpty()) {
-                inMemoryCache.put(cacheKey, priser);
+                cache(cacheKey, datum, prisklass, priser);
+                saveToSharedCache(datum, prisklass, priser);
                 saveToDiskCache(cacheKey, response.body()); // Spara rådata till disk (framtida implementation)
             }
+            publishIfChanged(datum, prisklass, cacheKey, priser);
             return priser;
 
         } catch (IOException | InterruptedException e) {
@@ -208,6 +344,36 @@ public final class ElpriserAPI {
 
     // --- Privata hjälpmetoder ---
 
+    private void cache(String cacheKey, LocalDate datum, Prisklass prisklass, List<Elpris> priser) {
+        inMemoryCache.put(cacheKey, priser);
+        rollups.record(datum, prisklass, priser);
+    }
+
+    private void publishIfChanged(LocalDate datum, Prisklass prisklass, String cacheKey, List<Elpris> priser) {
+        if (priser.isEmpty()) {
+            return;
+        }
+        Prisuppdatering update = new Prisuppdatering(datum, prisklass, priser);
+        // Versionen noteras även utan prenumeranter, så att en senare prenumerant inte får en oförändrad
+        // serie som ändring. Dagar bortom horisonten noteras inte och glöms, så kartan växer inte obegränsat
+        newestPublishedDay.accumulate(datum.toEpochDay());
+        long horizon = newestPublishedDay.get() - PUBLISH_HORIZON_DAYS;
+        Prisuppdatering previous = datum.toEpochDay() >= horizon ? lastPublished.put(cacheKey, update) : null;
+        lastPublished.values().removeIf(published -> published.datum().toEpochDay() < horizon);
+
+        SubmissionPublisher<Prisuppdatering> publisher = publishers.get(prisklass);
+        if (publisher.isClosed() || !publisher.hasSubscribers()
+                || (previous != null && priser.equals(previous.priser()))) {
+            return;
+        }
+        // offer() med en drop-hanterare som returnerar false: en långsam prenumerant missar
+        // uppdateringen men blockerar aldrig den tråd som hämtar priser
+        publisher.offer(update, (subscriber, uppdatering) -> {
+            System.err.println("Prenumerant hann inte med, hoppar över uppdatering för " + cacheKey);
+            return false;
+        });
+    }
+
     private String buildUrl(LocalDate datum, Prisklass prisklass) {
         String formattedDate = datum.format(URL_DATE_FORMATTER);
         return String.format("%s/%s_%s.json", API_BASE_URL, formattedDate, prisklass.name());
@@ -220,6 +386,7 @@ public final class ElpriserAPI {
     /**
      * En mycket enkel JSON-parser som är skräddarsydd för just detta API:s svarsformat.
      * Denna metod är inte en generell JSON-parser och är känslig för ändringar i formatet.
+     * Den returnerade listan är oföränderlig.
      */
     private List<Elpris> parseSimpleJson(String json) {
         List<Elpris> priser = new ArrayList<>();
@@ -256,17 +423,45 @@ public final class ElpriserAPI {
                     Double.parseDouble(valueMap.get("SEK_per_kWh")),
                     Double.parseDouble(valueMap.get("EUR_per_kWh")),
                     Double.parseDouble(valueMap.get("EXR")),
-                    ZonedDateTime.parse(valueMap.get("time_start")),
-                    ZonedDateTime.parse(valueMap.get("time_end"))
+                    Timestamps.parse(valueMap.get("time_start")),
+                    Timestamps.parse(valueMap.get("time_end"))
                 ));
             } catch (Exception e) {
                 // Hoppa över objekt som inte kan parsas, logga ett fel
                 System.err.println("Kunde inte tolka ett elpris-objekt: " + cleanObjStr + " - Fel: " + e.getMessage());
             }
         }
-        return priser;
+        // Listan delas av cachen och alla anropare, så den får inte kunna ändras
+        return Collections.unmodifiableList(priser);
     }
     
+    // --- Delad cache ---
+
+    private static Path sharedCacheFromProperty() {
+        String path = System.getProperty(SHARED_CACHE_PROPERTY);
+        return path == null || path.isBlank() ? null : Path.of(path);
+    }
+
+    private static SharedPriceCache openSharedCache(Path file) {
+        try {
+            return SharedPriceCache.open(file);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Kunde inte öppna delad cache " + file + ", fortsätter utan. Fel: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveToSharedCache(LocalDate datum, Prisklass prisklass, List<Elpris> priser) {
+        if (sharedCache == null) {
+            return;
+        }
+        try {
+            sharedCache.put(datum, prisklass, priser);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Kunde inte spara i delad cache: " + e.getMessage());
+        }
+    }
+
     // --- Stub-metoder för disk-cache ---
     
     /**
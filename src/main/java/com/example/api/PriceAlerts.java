@@ -0,0 +1,309 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Prislarm för många prenumeranter: under eller över en egen gräns, dagens N billigaste timmar,
+ * och billigaste sammanhängande fönster med ett högsta medelpris.
+ * <p>
+ * Reglerna indexeras per prisklass i sorterade strukturer. För gränsregler slås varje prisperiod upp
+ * i en {@link TreeMap} med gränserna som nycklar, så en ny dag kostar O(perioder × log regler + träffar)
+ * i stället för O(regler × perioder). Regler för billigaste timmar och fönster grupperas på antal timmar,
+ * så dagens priser sorteras och fönstren räknas en gång per längd oavsett hur många regler som delar den.
+ * <p>
+ * En regel som är lika med en redan tillagd regel läggs inte till igen, så samma prenumerant får
+ * aldrig två likadana larm. Med {@link #attach(ElpriserAPI)} utvärderas varje ny eller ändrad dag
+ * som API:et publicerar.
+ */
+public final class PriceAlerts {
+
+    /** En prenumerants regel för ett elprisområde. */
+    public sealed interface Rule permits Below, Above, CheapestHours, Window {
+        String subscriber();
+
+        ElpriserAPI.Prisklass prisklass();
+    }
+
+    /** Larmar för perioder där priset är under {@code sekPerKWh}. */
+    public record Below(String subscriber, ElpriserAPI.Prisklass prisklass, double sekPerKWh) implements Rule {}
+
+    /** Larmar för perioder där priset är över {@code sekPerKWh}. */
+    public record Above(String subscriber, ElpriserAPI.Prisklass prisklass, double sekPerKWh) implements Rule {}
+
+    /** Dagens {@code hours} billigaste timmar, som inte behöver ligga i följd. */
+    public record CheapestHours(String subscriber, ElpriserAPI.Prisklass prisklass, int hours) implements Rule {
+        public CheapestHours {
+            if (hours < 1) {
+                throw new IllegalArgumentException("Antal timmar måste vara minst 1: " + hours);
+            }
+        }
+    }
+
+    /** Dagens billigaste fönster på {@code hours} timmar i följd, om medelpriset är högst {@code maxMeanSekPerKWh}. */
+    public record Window(String subscriber, ElpriserAPI.Prisklass prisklass, int hours,
+                         double maxMeanSekPerKWh) implements Rule {
+        public Window {
+            if (hours < 1) {
+                throw new IllegalArgumentException("Antal timmar måste vara minst 1: " + hours);
+            }
+        }
+    }
+
+    /**
+     * Ett utlöst larm.
+     *
+     * @param priser perioderna som utlöste regeln, i tidsordning
+     */
+    public record Alert(Rule rule, LocalDate datum, List<ElpriserAPI.Elpris> priser) {}
+
+    private final Consumer<Alert> listener;
+    private final Map<ElpriserAPI.Prisklass, ZoneRules> zones;
+    private int size;
+
+    /**
+     * @param listener tar emot larmen från {@link #attach(ElpriserAPI)}; anropas från publicerarens tråd
+     */
+    public PriceAlerts(Consumer<Alert> listener) {
+        this.listener = listener;
+        this.zones = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        for (ElpriserAPI.Prisklass prisklass : ElpriserAPI.Prisklass.values()) {
+            zones.put(prisklass, new ZoneRules());
+        }
+    }
+
+    /** Lägger till en regel. @return false om en likadan regel redan fanns */
+    public synchronized boolean add(Rule rule) {
+        ZoneRules rules = zones.get(rule.prisklass());
+        boolean added = switch (rule) {
+            case Below below -> bucket(rules.below, below.sekPerKWh()).add(rule);
+            case Above above -> bucket(rules.above, above.sekPerKWh()).add(rule);
+            case CheapestHours cheapest -> bucket(rules.cheapest, cheapest.hours()).add(rule);
+            case Window window -> bucket(rules.windows.computeIfAbsent(window.hours(), k -> new TreeMap<>()),
+                    window.maxMeanSekPerKWh()).add(rule);
+        };
+        if (added) {
+            size++;
+        }
+        return added;
+    }
+
+    /** Tar bort en regel. @return true om regeln fanns */
+    public synchronized boolean remove(Rule rule) {
+        ZoneRules rules = zones.get(rule.prisklass());
+        boolean removed = switch (rule) {
+            case Below below -> removeFrom(rules.below, below.sekPerKWh(), rule);
+            case Above above -> removeFrom(rules.above, above.sekPerKWh(), rule);
+            case CheapestHours cheapest -> removeFrom(rules.cheapest, cheapest.hours(), rule);
+            case Window window -> {
+                TreeMap<Double, Set<Rule>> byMean = rules.windows.get(window.hours());
+                boolean found = byMean != null && removeFrom(byMean, window.maxMeanSekPerKWh(), rule);
+                if (byMean != null && byMean.isEmpty()) {
+                    rules.windows.remove(window.hours());
+                }
+                yield found;
+            }
+        };
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Utvärderar alla regler för en dags tidsordnade priser i ett område.
+     *
+     * @return ett larm per utlöst regel
+     */
+    public synchronized List<Alert> evaluate(LocalDate datum, ElpriserAPI.Prisklass prisklass,
+                                             List<ElpriserAPI.Elpris> priser) {
+        ZoneRules rules = zones.get(prisklass);
+        int n = priser.size();
+        if (n == 0) {
+            return List.of();
+        }
+        Map<Rule, List<ElpriserAPI.Elpris>> matches = new LinkedHashMap<>();
+
+        // Gränsregler: en sökning per period och gränsriktning, sedan bara träffarna
+        if (!rules.below.isEmpty() || !rules.above.isEmpty()) {
+            for (int i = 0; i < n; i++) {
+                ElpriserAPI.Elpris pris = priser.get(i);
+                double value = pris.sekPerKWh();
+                for (Set<Rule> bucket : rules.below.tailMap(value, false).values()) {
+                    addMatch(matches, bucket, pris);
+                }
+                for (Set<Rule> bucket : rules.above.headMap(value, false).values()) {
+                    addMatch(matches, bucket, pris);
+                }
+            }
+        }
+
+        int slotsPerHour = slotsPerHour(priser);
+
+        // Billigaste N timmar: sortera en gång, varje längd tar ett prefix
+        if (!rules.cheapest.isEmpty()) {
+            Integer[] byPrice = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                byPrice[i] = i;
+            }
+            // Stabil sortering, så den tidigaste perioden vinner vid lika priser
+            Arrays.sort(byPrice, Comparator.comparingDouble(i -> priser.get(i).sekPerKWh()));
+            for (Map.Entry<Integer, Set<Rule>> entry : rules.cheapest.entrySet()) {
+                int count = Math.min(n, entry.getKey() * slotsPerHour);
+                Integer[] chosen = Arrays.copyOf(byPrice, count);
+                Arrays.sort(chosen);
+                List<ElpriserAPI.Elpris> cheapest = new ArrayList<>(count);
+                for (Integer index : chosen) {
+                    cheapest.add(priser.get(index));
+                }
+                List<ElpriserAPI.Elpris> view = List.copyOf(cheapest);
+                for (Rule rule : entry.getValue()) {
+                    matches.put(rule, view);
+                }
+            }
+        }
+
+        // Fönster: ett glidande fönster per längd, sedan alla regler vars högsta medelpris räcker
+        for (Map.Entry<Integer, TreeMap<Double, Set<Rule>>> entry : rules.windows.entrySet()) {
+            int length = entry.getKey() * slotsPerHour;
+            if (length > n) {
+                continue;
+            }
+            double sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += priser.get(i).sekPerKWh();
+            }
+            double best = sum;
+            int bestStart = 0;
+            for (int i = length; i < n; i++) {
+                sum += priser.get(i).sekPerKWh() - priser.get(i - length).sekPerKWh();
+                if (sum < best) {
+                    best = sum;
+                    bestStart = i - length + 1;
+                }
+            }
+            List<ElpriserAPI.Elpris> window = priser.subList(bestStart, bestStart + length);
+            for (Set<Rule> bucket : entry.getValue().tailMap(best / length, true).values()) {
+                for (Rule rule : bucket) {
+                    matches.put(rule, window);
+                }
+            }
+        }
+
+        List<Alert> alerts = new ArrayList<>(matches.size());
+        for (Map.Entry<Rule, List<ElpriserAPI.Elpris>> entry : matches.entrySet()) {
+            alerts.add(new Alert(entry.getKey(), datum, entry.getValue()));
+        }
+        return alerts;
+    }
+
+    /**
+     * Prenumererar på alla prisklassers publicerare i {@code api}. Varje ny eller ändrad dag
+     * utvärderas och larmen skickas till lyssnaren. Ett undantag från lyssnaren loggas och gäller
+     * bara det larmet; prenumerationen och övriga larm påverkas inte.
+     */
+    public void attach(ElpriserAPI api) {
+        for (ElpriserAPI.Prisklass prisklass : ElpriserAPI.Prisklass.values()) {
+            api.getPublisher(prisklass).subscribe(new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(ElpriserAPI.Prisuppdatering uppdatering) {
+                    // Ett undantag som lämnar onNext får publiceraren att avsluta prenumerationen,
+                    // så inget får slinka igenom härifrån
+                    try {
+                        for (Alert alert : evaluate(uppdatering.datum(), uppdatering.prisklass(), uppdatering.priser())) {
+                            deliver(alert);
+                        }
+                    } catch (RuntimeException e) {
+                        System.err.println("Kunde inte utvärdera prislarm för " + prisklass + " "
+                                + uppdatering.datum() + ": " + e);
+                    } finally {
+                        subscription.request(1);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    System.err.println("Prislarm för " + prisklass + " avbröts: " + throwable.getMessage());
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+        }
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    private void deliver(Alert alert) {
+        try {
+            listener.accept(alert);
+        } catch (RuntimeException e) {
+            System.err.println("Prislarm till " + alert.rule().subscriber() + " misslyckades: " + e);
+        }
+    }
+
+    private static <K> Set<Rule> bucket(NavigableMap<K, Set<Rule>> map, K key) {
+        return map.computeIfAbsent(key, k -> new LinkedHashSet<>());
+    }
+
+    private static <K> boolean removeFrom(NavigableMap<K, Set<Rule>> map, K key, Rule rule) {
+        Set<Rule> bucket = map.get(key);
+        if (bucket == null || !bucket.remove(rule)) {
+            return false;
+        }
+        if (bucket.isEmpty()) {
+            map.remove(key);
+        }
+        return true;
+    }
+
+    private static void addMatch(Map<Rule, List<ElpriserAPI.Elpris>> matches, Set<Rule> bucket,
+                                 ElpriserAPI.Elpris pris) {
+        for (Rule rule : bucket) {
+            matches.computeIfAbsent(rule, r -> new ArrayList<>()).add(pris);
+        }
+    }
+
+    /** 1 för timpriser, 4 för kvartspriser, utifrån den första periodens längd. */
+    private static int slotsPerHour(List<ElpriserAPI.Elpris> priser) {
+        ElpriserAPI.Elpris first = priser.get(0);
+        long seconds = first.timeEnd().toEpochSecond() - first.timeStart().toEpochSecond();
+        return seconds > 0 && seconds < 3600 ? (int) (3600 / seconds) : 1;
+    }
+
+    /** Reglerna för ett elprisområde. */
+    private static final class ZoneRules {
+        // Gräns -> regler; under-regler matchar nycklar över priset, över-regler nycklar under priset
+        final TreeMap<Double, Set<Rule>> below = new TreeMap<>();
+        final TreeMap<Double, Set<Rule>> above = new TreeMap<>();
+        // Antal timmar -> regler
+        final TreeMap<Integer, Set<Rule>> cheapest = new TreeMap<>();
+        // Antal timmar -> högsta medelpris -> regler
+        final TreeMap<Integer, TreeMap<Double, Set<Rule>>> windows = new TreeMap<>();
+    }
+}
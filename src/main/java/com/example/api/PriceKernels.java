@@ -0,0 +1,54 @@
+package com.example.api;
+
+/**
+ * Bulkoperationer över primitiva prisarrayer, t.ex. långa historiker av {@code sekPerKWh}.
+ * <p>
+ * {@link #scalar()} är en vanlig loop och finns alltid. {@link #best()} returnerar en
+ * SIMD-version byggd på {@code jdk.incubator.vector} om projektet byggts med profilen
+ * {@code vector} och JVM:en startats med {@code --add-modules jdk.incubator.vector};
+ * annars returneras den skalära versionen.
+ * <p>
+ * {@link #minIndex} och {@link #maxIndex} ger exakt samma index i båda versionerna
+ * (tidigaste perioden vid lika värden, NaN ignoreras), och omräkningarna mellan SEK och EUR
+ * är bit för bit identiska. {@link #sum} och {@link #dot} avrundar varje multiplikation och
+ * addition för sig i båda versionerna (ingen fma), men SIMD-versionen summerar i en annan
+ * ordning. Skillnaden är högst {@code n * 2^-52 * Σ|a[i] * b[i]|} för {@code n} element.
+ */
+public interface PriceKernels {
+
+    /** Summan av {@code values[from..to)}. */
+    double sum(double[] values, int from, int to);
+
+    /**
+     * Index för det lägsta värdet i {@code values[from..to)}, det tidigaste vid lika. Ger ett index i
+     * intervallet även om alla värden är oändliga (eller {@code from} om alla är NaN), och -1 bara om
+     * intervallet är tomt.
+     */
+    int minIndex(double[] values, int from, int to);
+
+    /** Som {@link #minIndex} men för det högsta värdet. */
+    int maxIndex(double[] values, int from, int to);
+
+    /** {@code eur[i] = sek[i] / exr[i]} för {@code i} i {@code [from..to)}. */
+    void sekToEur(double[] sek, double[] exr, double[] eur, int from, int to);
+
+    /** {@code sek[i] = eur[i] * exr[i]} för {@code i} i {@code [from..to)}. */
+    void eurToSek(double[] eur, double[] exr, double[] sek, int from, int to);
+
+    /** Skalärprodukten av {@code a[from..to)} och {@code b[from..to)}, t.ex. förbrukning gånger pris. */
+    double dot(double[] a, double[] b, int from, int to);
+
+    /**
+     * Den skalära implementationen.
+     */
+    static PriceKernels scalar() {
+        return ScalarPriceKernels.INSTANCE;
+    }
+
+    /**
+     * Den snabbaste tillgängliga implementationen.
+     */
+    static PriceKernels best() {
+        return ScalarPriceKernels.BEST;
+    }
+}
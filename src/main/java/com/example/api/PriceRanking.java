@@ -0,0 +1,109 @@
+package com.example.api;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plockar ut de N dyraste eller billigaste perioderna utan att sortera hela listan.
+ * <p>
+ * En begränsad heap med högst N index används, vilket ger O(n log N) tid och O(N) minne.
+ * Vid lika priser kommer den tidigaste perioden först, både i urvalet och i resultatet.
+ */
+public final class PriceRanking {
+
+    private PriceRanking() {
+    }
+
+    /**
+     * De {@code limit} dyraste perioderna, dyraste först.
+     */
+    public static List<ElpriserAPI.Elpris> mostExpensive(List<ElpriserAPI.Elpris> priser, int limit) {
+        return top(priser, limit, true);
+    }
+
+    /**
+     * De {@code limit} billigaste perioderna, billigaste först.
+     */
+    public static List<ElpriserAPI.Elpris> cheapest(List<ElpriserAPI.Elpris> priser, int limit) {
+        return top(priser, limit, false);
+    }
+
+    private static List<ElpriserAPI.Elpris> top(List<ElpriserAPI.Elpris> priser, int limit, boolean descending) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Gränsen får inte vara negativ: " + limit);
+        }
+        int k = Math.min(limit, priser.size());
+        if (k == 0) {
+            return List.of();
+        }
+
+        // Heapen har den "sämsta" av de hittills valda perioderna i roten
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0, n = priser.size(); i < n; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUp(priser, heap, size, descending);
+                size++;
+            } else if (ranksBefore(priser, i, heap[0], descending)) {
+                heap[0] = i;
+                siftDown(priser, heap, size, descending);
+            }
+        }
+
+        // Tömmer heapen från sämsta till bästa och fyller resultatet bakifrån
+        ElpriserAPI.Elpris[] result = new ElpriserAPI.Elpris[k];
+        while (size > 0) {
+            result[--size] = priser.get(heap[0]);
+            heap[0] = heap[size];
+            siftDown(priser, heap, size, descending);
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Sant om perioden {@code a} ska stå före {@code b} i resultatet.
+     */
+    private static boolean ranksBefore(List<ElpriserAPI.Elpris> priser, int a, int b, boolean descending) {
+        int cmp = Double.compare(priser.get(a).sekPerKWh(), priser.get(b).sekPerKWh());
+        if (cmp == 0) {
+            return a < b;
+        }
+        return descending ? cmp > 0 : cmp < 0;
+    }
+
+    private static void siftUp(List<ElpriserAPI.Elpris> priser, int[] heap, int pos, boolean descending) {
+        int item = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!ranksBefore(priser, heap[parent], item, descending)) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = item;
+    }
+
+    private static void siftDown(List<ElpriserAPI.Elpris> priser, int[] heap, int size, boolean descending) {
+        if (size == 0) {
+            return;
+        }
+        int pos = 0;
+        int item = heap[0];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && ranksBefore(priser, heap[child], heap[right], descending)) {
+                child = right;
+            }
+            if (!ranksBefore(priser, item, heap[child], descending)) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = item;
+    }
+}
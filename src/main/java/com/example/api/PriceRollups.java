@@ -0,0 +1,242 @@
+package com.example.api;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Förberäknad statistik per dag, vecka (måndag–söndag) och månad för varje elprisområde.
+ * <p>
+ * Aggregaten uppdateras stegvis när {@link ElpriserAPI} lägger en ny dag i cachen: dagen läggs
+ * till i sin vecka och månad utan att de räknas om. Bara om en dag revideras eller kommer före
+ * en redan inlagd dag byggs veckan och månaden om från dagarna, vilket är högst 31 sammanslagningar.
+ * <p>
+ * En intervallfråga slås ihop av hela månader, sedan hela veckor och sist enskilda dagar i kanterna,
+ * så fem års månadsmedel kostar O(antal månader) i stället för O(antal prisperioder). Dagar som
+ * saknas hämtas via API:et. Frågor med klockslag räknar de delvisa dagarna i kanterna från
+ * de enskilda priserna.
+ */
+public final class PriceRollups {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+    /** Upplösningen för ett förberäknat aggregat. */
+    public enum Resolution { DAY, WEEK, MONTH }
+
+    private final BiFunction<LocalDate, ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> loader;
+    private final Map<ElpriserAPI.Prisklass, Zone> zones;
+
+    /**
+     * @param loader hämtar en dags priser när en fråga behöver en dag som saknas, normalt {@link ElpriserAPI#getPriser}
+     */
+    PriceRollups(BiFunction<LocalDate, ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> loader) {
+        this.loader = loader;
+        this.zones = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        for (ElpriserAPI.Prisklass prisklass : ElpriserAPI.Prisklass.values()) {
+            zones.put(prisklass, new Zone());
+        }
+    }
+
+    /**
+     * Lägger in, eller ersätter, en dags priser och uppdaterar veckan och månaden. Tomma listor ignoreras.
+     */
+    void record(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        if (priser == null || priser.isEmpty()) {
+            return;
+        }
+        PriceStats day = PriceStats.of(priser);
+        Zone zone = zones.get(prisklass);
+        synchronized (zone) {
+            boolean revised = zone.days.put(datum, day) != null;
+            zone.update(zone.weeks, weekStart(datum), 7, datum, day, revised);
+            zone.update(zone.months, datum.withDayOfMonth(1), datum.lengthOfMonth(), datum, day, revised);
+        }
+    }
+
+    /**
+     * Det förberäknade aggregatet för en period, eller null om ingen dag i perioden finns.
+     * Veckor anges med sin måndag och månader med sin första dag.
+     *
+     * @return en kopia som anroparen får ändra i
+     */
+    public PriceStats get(ElpriserAPI.Prisklass prisklass, Resolution resolution, LocalDate periodStart) {
+        Zone zone = zones.get(prisklass);
+        synchronized (zone) {
+            PriceStats stats = switch (resolution) {
+                case DAY -> zone.days.get(periodStart);
+                case WEEK -> statsOf(zone.weeks.get(periodStart));
+                case MONTH -> statsOf(zone.months.get(periodStart));
+            };
+            return stats == null ? null : new PriceStats().merge(stats);
+        }
+    }
+
+    /**
+     * Statistik för alla priser från och med {@code from} till och med {@code toInclusive}.
+     */
+    public PriceStats query(ElpriserAPI.Prisklass prisklass, LocalDate from, LocalDate toInclusive) {
+        PriceStats result = new PriceStats();
+        mergeDays(prisklass, from, toInclusive, result);
+        return result;
+    }
+
+    /**
+     * Statistik för alla prisperioder som börjar i {@code [from, to)}. Hela dagar tas från aggregaten
+     * och de delvisa dagarna i kanterna från de enskilda priserna.
+     */
+    public PriceStats query(ElpriserAPI.Prisklass prisklass, ZonedDateTime from, ZonedDateTime to) {
+        PriceStats result = new PriceStats();
+        if (!from.isBefore(to)) {
+            return result;
+        }
+        LocalDate firstDay = from.withZoneSameInstant(STOCKHOLM).toLocalDate();
+        LocalDate lastDay = to.withZoneSameInstant(STOCKHOLM).toLocalDate();
+        long fromSecond = from.toEpochSecond();
+        long toSecond = to.toEpochSecond();
+
+        // Första hela dagen och dagen efter sista hela dagen
+        LocalDate fullFrom = firstDay.atStartOfDay(STOCKHOLM).toEpochSecond() == fromSecond ? firstDay : firstDay.plusDays(1);
+        LocalDate fullTo = lastDay;
+        if (fullFrom.isAfter(fullTo)) {
+            // Hela intervallet ligger inom en dag
+            mergeRaw(prisklass, firstDay, fromSecond, toSecond, result);
+            return result;
+        }
+        if (fullFrom.isAfter(firstDay)) {
+            mergeRaw(prisklass, firstDay, fromSecond, toSecond, result);
+        }
+        mergeDays(prisklass, fullFrom, fullTo.minusDays(1), result);
+        if (lastDay.atStartOfDay(STOCKHOLM).toEpochSecond() < toSecond) {
+            mergeRaw(prisklass, lastDay, fromSecond, toSecond, result);
+        }
+        return result;
+    }
+
+    /**
+     * Statistik per kalendermånad, en per månad från och med {@code from} till och med {@code toInclusive}.
+     */
+    public List<PriceStats> monthly(ElpriserAPI.Prisklass prisklass, YearMonth from, YearMonth toInclusive) {
+        List<PriceStats> result = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(toInclusive); month = month.plusMonths(1)) {
+            result.add(query(prisklass, month.atDay(1), month.atEndOfMonth()));
+        }
+        return result;
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    /** Frågeplaneraren: hela månader, annars hela veckor, annars enskilda dagar, i tidsordning. */
+    private void mergeDays(ElpriserAPI.Prisklass prisklass, LocalDate from, LocalDate toInclusive, PriceStats result) {
+        Zone zone = zones.get(prisklass);
+        LocalDate day = from;
+        while (!day.isAfter(toInclusive)) {
+            if (day.getDayOfMonth() == 1 && !day.plusMonths(1).minusDays(1).isAfter(toInclusive)
+                    && zone.mergeIfComplete(zone.months, day, day.lengthOfMonth(), result)) {
+                day = day.plusMonths(1);
+                continue;
+            }
+            if (day.getDayOfWeek() == DayOfWeek.MONDAY && !day.plusDays(6).isAfter(toInclusive)
+                    && zone.mergeIfComplete(zone.weeks, day, 7, result)) {
+                day = day.plusDays(7);
+                continue;
+            }
+            if (!zone.mergeDay(day, result)) {
+                // Hämtningen lägger normalt in dagen via cachen; utan cache läggs den in här
+                List<ElpriserAPI.Elpris> priser = loader.apply(day, prisklass);
+                if (!zone.mergeDay(day, result) && priser != null && !priser.isEmpty()) {
+                    record(day, prisklass, priser);
+                    zone.mergeDay(day, result);
+                }
+            }
+            day = day.plusDays(1);
+        }
+    }
+
+    private void mergeRaw(ElpriserAPI.Prisklass prisklass, LocalDate day, long fromSecond, long toSecond,
+                          PriceStats result) {
+        List<ElpriserAPI.Elpris> priser = loader.apply(day, prisklass);
+        if (priser == null) {
+            return;
+        }
+        for (int i = 0, n = priser.size(); i < n; i++) {
+            ElpriserAPI.Elpris pris = priser.get(i);
+            long start = pris.timeStart().toEpochSecond();
+            if (start >= fromSecond && start < toSecond) {
+                result.add(pris);
+            }
+        }
+    }
+
+    private static LocalDate weekStart(LocalDate datum) {
+        return datum.minusDays(datum.getDayOfWeek().getValue() - 1);
+    }
+
+    private static PriceStats statsOf(Rollup rollup) {
+        return rollup == null ? null : rollup.stats;
+    }
+
+    /** Ett vecko- eller månadsaggregat och hur många av periodens dagar det innehåller. */
+    private static final class Rollup {
+        PriceStats stats = new PriceStats();
+        int days;
+        LocalDate last;
+    }
+
+    /** Aggregaten för ett elprisområde. Alla fält skyddas av objektets eget lås. */
+    private static final class Zone {
+        final Map<LocalDate, PriceStats> days = new HashMap<>();
+        final Map<LocalDate, Rollup> weeks = new HashMap<>();
+        final Map<LocalDate, Rollup> months = new HashMap<>();
+
+        void update(Map<LocalDate, Rollup> rollups, LocalDate start, int length, LocalDate datum,
+                    PriceStats day, boolean revised) {
+            Rollup rollup = rollups.computeIfAbsent(start, k -> new Rollup());
+            if (!revised && (rollup.last == null || datum.isAfter(rollup.last))) {
+                // Vanliga fallet: nästa dag i tidsordning läggs till utan omräkning
+                rollup.stats.merge(day);
+                rollup.days++;
+                rollup.last = datum;
+                return;
+            }
+            // Sammanslagningen är ordningsberoende, så bygg om från dagarna
+            rollup.stats = new PriceStats();
+            rollup.days = 0;
+            for (int i = 0; i < length; i++) {
+                LocalDate d = start.plusDays(i);
+                PriceStats stats = days.get(d);
+                if (stats != null) {
+                    rollup.stats.merge(stats);
+                    rollup.days++;
+                    rollup.last = d;
+                }
+            }
+        }
+
+        synchronized boolean mergeIfComplete(Map<LocalDate, Rollup> rollups, LocalDate start, int length,
+                                             PriceStats result) {
+            Rollup rollup = rollups.get(start);
+            if (rollup == null || rollup.days < length) {
+                return false;
+            }
+            result.merge(rollup.stats);
+            return true;
+        }
+
+        synchronized boolean mergeDay(LocalDate datum, PriceStats result) {
+            PriceStats stats = days.get(datum);
+            if (stats == null) {
+                return false;
+            }
+            result.merge(stats);
+            return true;
+        }
+    }
+}
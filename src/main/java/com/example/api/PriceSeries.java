@@ -0,0 +1,103 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * En oföränderlig vy som sätter ihop flera dagars prislistor till en sammanhängande serie,
+ * t.ex. idag och imorgon, utan att kopiera priserna.
+ * <p>
+ * Indexerad åtkomst är O(1) även när dagarna har olika längd (23 eller 25 timmar vid
+ * sommartidsomställning, 96 kvartar): serien delas i hinkar som är högst lika långa som den
+ * kortaste dagen, så varje hink ligger inom högst två dagar och rätt dag hittas med en jämförelse.
+ * Därför fungerar glidande fönster och statistik över midnatt precis som på en enda dag.
+ * <p>
+ * Dagarnas listor används som de är och får inte ändras; listorna från {@link ElpriserAPI} är oföränderliga.
+ */
+public final class PriceSeries extends AbstractList<ElpriserAPI.Elpris> implements RandomAccess {
+
+    private final List<List<ElpriserAPI.Elpris>> days;
+    // offsets[d] är första index för dag d, offsets[days.size()] är seriens längd
+    private final int[] offsets;
+    // bucketDay[b] är dagen som innehåller index b << shift
+    private final int[] bucketDay;
+    private final int shift;
+
+    private PriceSeries(List<List<ElpriserAPI.Elpris>> days) {
+        this.days = days;
+        this.offsets = new int[days.size() + 1];
+        int shortest = Integer.MAX_VALUE;
+        for (int d = 0; d < days.size(); d++) {
+            int length = days.get(d).size();
+            offsets[d + 1] = offsets[d] + length;
+            shortest = Math.min(shortest, length);
+        }
+        // Största tvåpotens som inte är längre än den kortaste dagen
+        this.shift = days.isEmpty() ? 0 : 31 - Integer.numberOfLeadingZeros(shortest);
+        int size = offsets[days.size()];
+        this.bucketDay = new int[size == 0 ? 0 : ((size - 1) >>> shift) + 1];
+        int d = 0;
+        for (int b = 0; b < bucketDay.length; b++) {
+            int first = b << shift;
+            while (offsets[d + 1] <= first) {
+                d++;
+            }
+            bucketDay[b] = d;
+        }
+    }
+
+    /**
+     * Sätter ihop dagarnas listor i den ordning de kommer. Tomma dagar hoppas över.
+     */
+    public static PriceSeries of(List<? extends List<ElpriserAPI.Elpris>> days) {
+        List<List<ElpriserAPI.Elpris>> nonEmpty = new ArrayList<>(days.size());
+        for (List<ElpriserAPI.Elpris> day : days) {
+            if (day != null && !day.isEmpty()) {
+                nonEmpty.add(day);
+            }
+        }
+        return new PriceSeries(nonEmpty);
+    }
+
+    /**
+     * Hämtar (eller tar från cachen) varje dag från och med {@code from} till och med {@code toInclusive}
+     * och sätter ihop dem. Dagar utan priser hoppas över.
+     */
+    public static PriceSeries fetch(ElpriserAPI api, ElpriserAPI.Prisklass prisklass,
+                                    LocalDate from, LocalDate toInclusive) {
+        List<List<ElpriserAPI.Elpris>> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(toInclusive); day = day.plusDays(1)) {
+            days.add(api.getPriser(day, prisklass));
+        }
+        return of(days);
+    }
+
+    @Override
+    public ElpriserAPI.Elpris get(int index) {
+        Objects.checkIndex(index, size());
+        int d = bucketDay[index >>> shift];
+        if (index >= offsets[d + 1]) {
+            d++;
+        }
+        return days.get(d).get(index - offsets[d]);
+    }
+
+    @Override
+    public int size() {
+        return offsets[days.size()];
+    }
+
+    /** Antal (icke-tomma) dagar i serien. */
+    public int dayCount() {
+        return days.size();
+    }
+
+    /** Index för första priset under dag {@code day} (0 för den första dagen). */
+    public int dayStart(int day) {
+        return offsets[Objects.checkIndex(day, days.size())];
+    }
+}
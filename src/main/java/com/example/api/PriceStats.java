@@ -0,0 +1,183 @@
+package com.example.api;
+
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * Ackumulator för prisstatistik: antal, summa, medelvärde, varians samt lägsta och högsta pris.
+ * <p>
+ * Allt räknas ut i ett enda svep utan allokering. Vid lika priser behålls den tidigaste perioden,
+ * på samma sätt som {@code Collections.min} och {@code Collections.max}. Två ackumulatorer kan
+ * slås ihop med {@link #merge(PriceStats)}, t.ex. en per dag till ett flerdagsresultat eller
+ * delresultat från en parallell ström.
+ */
+public final class PriceStats {
+
+    private long count;
+    private double sum;
+    // Löpande medelvärde och summa av kvadratavvikelser (Welford) för en numeriskt stabil varians
+    private double runningMean;
+    private double m2;
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long minIndex = -1;
+    private long maxIndex = -1;
+    private ElpriserAPI.Elpris cheapest;
+    private ElpriserAPI.Elpris mostExpensive;
+
+    /**
+     * Räknar statistik för en tidsordnad lista med priser.
+     */
+    public static PriceStats of(List<ElpriserAPI.Elpris> priser) {
+        PriceStats stats = new PriceStats();
+        for (int i = 0, n = priser.size(); i < n; i++) {
+            stats.add(priser.get(i));
+        }
+        return stats;
+    }
+
+    /**
+     * En {@link Collector} som fungerar även för parallella strömmar, så länge de är ordnade.
+     */
+    public static Collector<ElpriserAPI.Elpris, PriceStats, PriceStats> collector() {
+        return Collector.of(PriceStats::new, PriceStats::add, PriceStats::merge);
+    }
+
+    /**
+     * Lägger till nästa pris i tidsordning.
+     */
+    public void add(ElpriserAPI.Elpris pris) {
+        accept(pris.sekPerKWh(), pris);
+    }
+
+    /**
+     * Lägger till nästa pris i tidsordning när bara värdet finns, t.ex. från en primitiv array.
+     * {@link #cheapest()} och {@link #mostExpensive()} blir då {@code null}.
+     */
+    public void add(double sekPerKWh) {
+        accept(sekPerKWh, null);
+    }
+
+    /**
+     * Slår ihop {@code later} med denna ackumulator. {@code later} antas täcka perioder som kommer
+     * efter denna ackumulators perioder, så index förskjuts och lika priser behåller det tidigare värdet.
+     *
+     * @return denna ackumulator
+     */
+    public PriceStats merge(PriceStats later) {
+        if (later.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            copyFrom(later);
+            return this;
+        }
+        long total = count + later.count;
+        double delta = later.runningMean - runningMean;
+        runningMean += delta * later.count / total;
+        m2 += later.m2 + delta * delta * count * later.count / total;
+        sum += later.sum;
+
+        if (later.minIndex >= 0 && (minIndex < 0 || later.min < min)) {
+            min = later.min;
+            minIndex = count + later.minIndex;
+            cheapest = later.cheapest;
+        }
+        if (later.maxIndex >= 0 && (maxIndex < 0 || later.max > max)) {
+            max = later.max;
+            maxIndex = count + later.maxIndex;
+            mostExpensive = later.mostExpensive;
+        }
+        count = total;
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    /** Medelpriset, eller NaN om inga priser har lagts till. */
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /** Populationsvariansen, eller NaN om inga priser har lagts till. */
+    public double variance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    /** Index för det (tidigaste) lägsta priset, eller -1 om inga priser har lagts till. */
+    public long minIndex() {
+        return minIndex;
+    }
+
+    /** Index för det (tidigaste) högsta priset, eller -1 om inga priser har lagts till. */
+    public long maxIndex() {
+        return maxIndex;
+    }
+
+    public ElpriserAPI.Elpris cheapest() {
+        return cheapest;
+    }
+
+    public ElpriserAPI.Elpris mostExpensive() {
+        return mostExpensive;
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    private void accept(double value, ElpriserAPI.Elpris pris) {
+        count++;
+        sum += value;
+        double delta = value - runningMean;
+        runningMean += delta / count;
+        m2 += delta * (value - runningMean);
+
+        // Strikt jämförelse så att den tidigaste perioden vinner vid lika priser. Första värdet som
+        // inte är NaN tas alltid, så även en serie med bara +Inf (eller -Inf för max) får ett index
+        if (value < min || minIndex < 0 && !Double.isNaN(value)) {
+            min = value;
+            minIndex = count - 1;
+            cheapest = pris;
+        }
+        if (value > max || maxIndex < 0 && !Double.isNaN(value)) {
+            max = value;
+            maxIndex = count - 1;
+            mostExpensive = pris;
+        }
+    }
+
+    private void copyFrom(PriceStats other) {
+        count = other.count;
+        sum = other.sum;
+        runningMean = other.runningMean;
+        m2 = other.m2;
+        min = other.min;
+        max = other.max;
+        minIndex = other.minIndex;
+        maxIndex = other.maxIndex;
+        cheapest = other.cheapest;
+        mostExpensive = other.mostExpensive;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.api;
+
+/**
+ * Skalär referensimplementation av {@link PriceKernels}.
+ */
+final class ScalarPriceKernels implements PriceKernels {
+
+    static final ScalarPriceKernels INSTANCE = new ScalarPriceKernels();
+
+    // Byggs bara med profilen "vector"; saknas klassen eller modulen används den skalära versionen
+    private static final String VECTOR_IMPLEMENTATION = "com.example.api.VectorPriceKernels";
+
+    static final PriceKernels BEST = loadBest();
+
+    private ScalarPriceKernels() {
+    }
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int minIndex(double[] values, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        // Startar från första värdet, så ett intervall med bara +Inf ändå ger ett index
+        int index = firstNumber(values, from, to);
+        double min = values[index];
+        for (int i = index + 1; i < to; i++) {
+            if (values[i] < min) {
+                min = values[i];
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int maxIndex(double[] values, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int index = firstNumber(values, from, to);
+        double max = values[index];
+        for (int i = index + 1; i < to; i++) {
+            if (values[i] > max) {
+                max = values[i];
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public void sekToEur(double[] sek, double[] exr, double[] eur, int from, int to) {
+        for (int i = from; i < to; i++) {
+            eur[i] = sek[i] / exr[i];
+        }
+    }
+
+    @Override
+    public void eurToSek(double[] eur, double[] exr, double[] sek, int from, int to) {
+        for (int i = from; i < to; i++) {
+            sek[i] = eur[i] * exr[i];
+        }
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /** Första index som inte är NaN, eller {@code from} om alla är NaN. */
+    private static int firstNumber(double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Double.isNaN(values[i])) {
+                return i;
+            }
+        }
+        return from;
+    }
+
+    private static PriceKernels loadBest() {
+        try {
+            return (PriceKernels) Class.forName(VECTOR_IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.example.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * En delad pris-cache i en minnesmappad fil, som alla JVM:er på samma maskin kan använda samtidigt.
+ * <p>
+ * Filen består av ett huvud följt av en tabell med lika stora fack. Varje fack håller en dags
+ * priser för en prisklass och hittas via en hash av datum och prisklass (med linjär sondering).
+ * <ul>
+ *   <li>Läsare låser inget. Varje fack har en sekvensräknare som är udda medan facket skrivs;
+ *       läsaren försöker igen om räknaren var udda eller ändrades under läsningen.</li>
+ *   <li>Skrivare tar ett fillås på fackets byte-intervall (mellan processer) och ett lås i
+ *       objektet (mellan trådar i samma JVM, där fillås inte kan överlappa).</li>
+ *   <li>Om en process dör mitt i en skrivning blir räknaren kvar som udda. Sådana fack
+ *       markeras som borttagna när filen öppnas, eller skrivs över nästa gång någon skriver till
+ *       facket. Ett borttaget fack avbryter inte sonderingen, så nycklar längre fram hittas fortfarande.</li>
+ * </ul>
+ * Bara en tom eller ny fil initieras; en fil med annat innehåll lämnas orörd och ger ett {@link IOException}.
+ * Filens byteordning är alltid little-endian.
+ */
+public final class SharedPriceCache implements Closeable {
+
+    /** Största antal perioder per dag: 25 timmar vid omställning till vintertid, i kvartar. */
+    public static final int MAX_ENTRIES = 100;
+
+    private static final int MAGIC = 0x43504C45; // "ELPC"
+    private static final int VERSION = 1;
+    private static final int DEFAULT_SLOT_COUNT = 1024;
+    private static final int MAX_PROBES = 8;
+    private static final int MAX_READ_ATTEMPTS = 16;
+
+    // Huvud
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_SLOT_COUNT = 8;
+
+    // Fack: sekvensräknare, nyckel, antal perioder, skrivtid och sedan perioderna
+    private static final int SLOT_SEQ = 0;
+    private static final int SLOT_EPOCH_DAY = 8;
+    private static final int SLOT_ZONE = 12; // Prisklass.ordinal() + 1, 0 betyder tomt
+    private static final int TOMBSTONE = -1; // Borttaget fack, sonderingen fortsätter förbi det
+    private static final int SLOT_COUNT = 16;
+    private static final int SLOT_WRITTEN_AT = 24;
+    private static final int SLOT_ENTRIES = 32;
+
+    // Period: start (epoch-sekunder), längd, offset vid start och slut, samt de tre priserna
+    private static final int ENTRY_START = 0;
+    private static final int ENTRY_DURATION = 8;
+    private static final int ENTRY_START_OFFSET = 12;
+    private static final int ENTRY_END_OFFSET = 16;
+    private static final int ENTRY_SEK = 24;
+    private static final int ENTRY_EUR = 32;
+    private static final int ENTRY_EXR = 40;
+    private static final int ENTRY_SIZE = 48;
+
+    private static final int SLOT_SIZE = align64(SLOT_ENTRIES + MAX_ENTRIES * ENTRY_SIZE);
+    // Facken adresseras med int-offset i en enda mappning
+    private static final int MAX_SLOT_COUNT = (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE;
+
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final Map<Path, SharedPriceCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final Object writeLock = new Object();
+    private int openCount; // Antal öppna open()-anrop för instansen, ändras bara inuti INSTANCES
+
+    private SharedPriceCache(Path file, FileChannel channel, MappedByteBuffer buffer, int slotCount) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * Öppnar (eller skapar) en delad cache-fil med standardstorlek.
+     */
+    public static SharedPriceCache open(Path file) throws IOException {
+        return open(file, DEFAULT_SLOT_COUNT);
+    }
+
+    /**
+     * Öppnar (eller skapar) en delad cache-fil. Finns filen redan används dess egen storlek
+     * och {@code slotCount} ignoreras. Inom en JVM delas samma instans för samma fil, eftersom
+     * fillås inte kan överlappa inom en och samma process. Instansen räknar sina öppningar och
+     * stängs först när varje {@code open} har fått ett eget {@link #close()}.
+     *
+     * @throws IOException om filen inte kan öppnas, eller inte är tom och inte är en pris-cache
+     */
+    public static SharedPriceCache open(Path file, int slotCount) throws IOException {
+        if (slotCount < 1 || slotCount > MAX_SLOT_COUNT) {
+            throw new IllegalArgumentException("Antal fack måste vara mellan 1 och " + MAX_SLOT_COUNT + ": " + slotCount);
+        }
+        Path key = file.toAbsolutePath().normalize();
+        try {
+            return INSTANCES.compute(key, (k, existing) -> {
+                try {
+                    SharedPriceCache cache = existing != null ? existing : create(k, slotCount);
+                    cache.openCount++;
+                    return cache;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static SharedPriceCache create(Path file, int slotCount) throws IOException {
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int slots;
+            // Huvudet initieras under lås så att två processer inte skapar filen samtidigt
+            FileLock lock = channel.lock(0, HEADER_SIZE, false);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                if (channel.size() == 0) {
+                    slots = slotCount;
+                    // Huvudet skrivs först, så en fil som inte är tom har alltid ett huvud.
+                    // Fack som aldrig skrivits är nollor, dvs tomma med jämn sekvensräknare
+                    header.putInt(HEADER_MAGIC, MAGIC)
+                            .putInt(HEADER_VERSION, VERSION)
+                            .putInt(HEADER_SLOT_COUNT, slots);
+                    channel.write(header, 0);
+                    channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) slots * SLOT_SIZE - 1);
+                    channel.force(true);
+                } else {
+                    // Skriv aldrig över en fil som inte är vår, t.ex. om egenskapen pekar fel
+                    channel.read(header, 0);
+                    if (header.getInt(HEADER_MAGIC) != MAGIC) {
+                        throw new IOException("Filen " + file + " är inte en pris-cache");
+                    }
+                    if (header.getInt(HEADER_VERSION) != VERSION) {
+                        throw new IOException("Okänd version av cache-filen " + file);
+                    }
+                    slots = header.getInt(HEADER_SLOT_COUNT);
+                    if (slots < 1 || slots > MAX_SLOT_COUNT
+                            || channel.size() < HEADER_SIZE + (long) slots * SLOT_SIZE) {
+                        throw new IOException("Cache-filen " + file + " är trasig (" + slots + " fack)");
+                    }
+                }
+            } finally {
+                lock.release();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            SharedPriceCache cache = new SharedPriceCache(file, channel, buffer, slots);
+            cache.recoverTornSlots();
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Hämtar en dags priser utan att låsa.
+     *
+     * @return priserna, eller {@code null} om de inte finns i cachen
+     */
+    public List<ElpriserAPI.Elpris> get(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        int epochDay = (int) datum.toEpochDay();
+        int zone = prisklass.ordinal() + 1;
+        int home = home(epochDay, zone);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = slotOffset((home + probe) % slotCount);
+            for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+                long before = (long) LONG_VIEW.getAcquire(buffer, slot + SLOT_SEQ);
+                if ((before & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int slotZone = buffer.getInt(slot + SLOT_ZONE);
+                if (slotZone == 0) {
+                    return null; // Tomt fack: nyckeln finns inte längre fram i sonderingen
+                }
+                // Ett borttaget fack matchar ingen nyckel, så vi fortsätter förbi det
+                boolean match = slotZone == zone && buffer.getInt(slot + SLOT_EPOCH_DAY) == epochDay;
+                List<ElpriserAPI.Elpris> priser = match ? readEntries(slot) : null;
+                VarHandle.loadLoadFence();
+                long after = (long) LONG_VIEW.getAcquire(buffer, slot + SLOT_SEQ);
+                if (before != after) {
+                    continue; // Facket skrevs om medan vi läste
+                }
+                if (match) {
+                    return priser;
+                }
+                break; // Annan nyckel, prova nästa fack
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sparar en dags priser. Listor som är tomma eller har fler än {@link #MAX_ENTRIES} perioder sparas inte.
+     */
+    public void put(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) throws IOException {
+        if (priser.isEmpty() || priser.size() > MAX_ENTRIES) {
+            return;
+        }
+        int epochDay = (int) datum.toEpochDay();
+        int zone = prisklass.ordinal() + 1;
+        int home = home(epochDay, zone);
+        synchronized (writeLock) {
+            while (true) {
+                int target = findTarget(epochDay, zone, home);
+                int slot = slotOffset(target);
+                FileLock lock = channel.lock(slot, SLOT_SIZE, false);
+                try {
+                    // En annan process kan ha skrivit om tabellen sedan vi valde facket, t.ex. lagt in
+                    // samma nyckel någon annanstans; välj om under låset så att nyckeln inte hamnar i två fack
+                    if (findTarget(epochDay, zone, home) != target) {
+                        continue;
+                    }
+                    long seq = (long) LONG_VIEW.getAcquire(buffer, slot + SLOT_SEQ);
+                    long writing = seq | 1; // Udda även om en tidigare skrivare dog mitt i
+                    LONG_VIEW.setRelease(buffer, slot + SLOT_SEQ, writing);
+                    VarHandle.storeStoreFence();
+
+                    buffer.putInt(slot + SLOT_EPOCH_DAY, epochDay);
+                    buffer.putInt(slot + SLOT_ZONE, zone);
+                    buffer.putInt(slot + SLOT_COUNT, priser.size());
+                    buffer.putLong(slot + SLOT_WRITTEN_AT, System.currentTimeMillis());
+                    for (int i = 0; i < priser.size(); i++) {
+                        writeEntry(slot + SLOT_ENTRIES + i * ENTRY_SIZE, priser.get(i));
+                    }
+
+                    LONG_VIEW.setRelease(buffer, slot + SLOT_SEQ, writing + 1);
+                    return;
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stänger den här öppningen. Filen stängs när alla som öppnat den har stängt;
+     * varje {@code open} ska därför stängas exakt en gång.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            INSTANCES.computeIfPresent(file, (k, cache) -> {
+                if (cache != this || --openCount > 0) {
+                    return cache;
+                }
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // --- Testkrokar ---
+
+    /** ENDAST FÖR TEST: antal fack som håller en nyckel. */
+    int occupiedSlots() {
+        int occupied = 0;
+        for (int index = 0; index < slotCount; index++) {
+            if (buffer.getInt(slotOffset(index) + SLOT_ZONE) > 0) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    /** ENDAST FÖR TEST: lämnar nyckelns fack som om skrivaren dog mitt i en skrivning. */
+    void simulateTornWrite(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        int epochDay = (int) datum.toEpochDay();
+        int zone = prisklass.ordinal() + 1;
+        int home = home(epochDay, zone);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = slotOffset((home + probe) % slotCount);
+            if (buffer.getInt(slot + SLOT_ZONE) == zone && buffer.getInt(slot + SLOT_EPOCH_DAY) == epochDay) {
+                LONG_VIEW.setRelease(buffer, slot + SLOT_SEQ, (long) LONG_VIEW.getAcquire(buffer, slot + SLOT_SEQ) | 1);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Nyckeln finns inte: " + datum + " " + prisklass);
+    }
+
+    /** ENDAST FÖR TEST: första facket i nyckelns sondering. */
+    int homeSlot(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        return home((int) datum.toEpochDay(), prisklass.ordinal() + 1);
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    /**
+     * Väljer facket att skriva nyckeln i: facket som redan håller nyckeln, annars det första
+     * tomma eller borttagna facket, och är hela sonderingen full det äldsta facket.
+     * Sonderingen fortsätter förbi borttagna fack tills nyckeln eller ett tomt fack hittas.
+     */
+    private int findTarget(int epochDay, int zone, int home) {
+        int free = -1;
+        int oldestIndex = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int index = (home + probe) % slotCount;
+            int slot = slotOffset(index);
+            int slotZone = buffer.getInt(slot + SLOT_ZONE);
+            if (slotZone == zone && buffer.getInt(slot + SLOT_EPOCH_DAY) == epochDay) {
+                return index;
+            }
+            if (slotZone == 0 || slotZone == TOMBSTONE) {
+                if (free < 0) {
+                    free = index;
+                }
+                if (slotZone == 0) {
+                    break; // Nyckeln finns inte längre fram
+                }
+                continue;
+            }
+            long writtenAt = buffer.getLong(slot + SLOT_WRITTEN_AT);
+            if (writtenAt < oldest) {
+                oldest = writtenAt;
+                oldestIndex = index;
+            }
+        }
+        return free >= 0 ? free : oldestIndex;
+    }
+
+    /**
+     * Markerar fack vars sekvensräknare är udda utan att någon håller skrivlåset, dvs fack där
+     * en skrivare dog mitt i en skrivning, som borttagna. De töms inte, eftersom ett tomt fack
+     * mitt i en sondering skulle göra nycklarna efter det oåtkomliga.
+     */
+    private void recoverTornSlots() throws IOException {
+        synchronized (writeLock) {
+            for (int index = 0; index < slotCount; index++) {
+                int slot = slotOffset(index);
+                long seq = (long) LONG_VIEW.getAcquire(buffer, slot + SLOT_SEQ);
+                if ((seq & 1) == 0) {
+                    continue;
+                }
+                try (FileLock lock = channel.tryLock(slot, SLOT_SIZE, false)) {
+                    if (lock == null || (long) LONG_VIEW.getAcquire(buffer, slot + SLOT_SEQ) != seq) {
+                        continue; // En levande skrivare håller på med facket
+                    }
+                    buffer.putInt(slot + SLOT_ZONE, TOMBSTONE);
+                    buffer.putInt(slot + SLOT_COUNT, 0);
+                    LONG_VIEW.setRelease(buffer, slot + SLOT_SEQ, seq + 1);
+                }
+            }
+        }
+    }
+
+    private List<ElpriserAPI.Elpris> readEntries(int slot) {
+        int count = buffer.getInt(slot + SLOT_COUNT);
+        if (count < 0 || count > MAX_ENTRIES) {
+            return null; // Trasig läsning; sekvensräknaren avgör om vi försöker igen
+        }
+        List<ElpriserAPI.Elpris> priser = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = slot + SLOT_ENTRIES + i * ENTRY_SIZE;
+            long start = buffer.getLong(entry + ENTRY_START);
+            long end = start + buffer.getInt(entry + ENTRY_DURATION);
+            priser.add(new ElpriserAPI.Elpris(
+                    buffer.getDouble(entry + ENTRY_SEK),
+                    buffer.getDouble(entry + ENTRY_EUR),
+                    buffer.getDouble(entry + ENTRY_EXR),
+                    Timestamps.toZonedDateTime(start, buffer.getInt(entry + ENTRY_START_OFFSET)),
+                    Timestamps.toZonedDateTime(end, buffer.getInt(entry + ENTRY_END_OFFSET))));
+        }
+        return Collections.unmodifiableList(priser);
+    }
+
+    private void writeEntry(int entry, ElpriserAPI.Elpris pris) {
+        long start = pris.timeStart().toEpochSecond();
+        buffer.putLong(entry + ENTRY_START, start);
+        buffer.putInt(entry + ENTRY_DURATION, (int) (pris.timeEnd().toEpochSecond() - start));
+        buffer.putInt(entry + ENTRY_START_OFFSET, pris.timeStart().getOffset().getTotalSeconds());
+        buffer.putInt(entry + ENTRY_END_OFFSET, pris.timeEnd().getOffset().getTotalSeconds());
+        buffer.putDouble(entry + ENTRY_SEK, pris.sekPerKWh());
+        buffer.putDouble(entry + ENTRY_EUR, pris.eurPerKWh());
+        buffer.putDouble(entry + ENTRY_EXR, pris.exr());
+    }
+
+    private int home(int epochDay, int zone) {
+        int hash = epochDay * 31 + zone;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x9E3779B1, slotCount);
+    }
+
+    private static int slotOffset(int index) {
+        return HEADER_SIZE + index * SLOT_SIZE;
+    }
+
+    private static int align64(int size) {
+        return (size + 63) & ~63;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.api;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Snabb avkodning av tidsstämplar i API:ets fasta format {@code yyyy-MM-ddTHH:mm:ss+HH:MM},
+ * t.ex. {@code 2025-10-26T02:00:00+01:00}.
+ * <p>
+ * Siffrorna läses direkt ur texten till epoksekunder och en förskjutning i sekunder, utan
+ * {@code DateTimeFormatter} och utan allokering. {@link ZoneOffset}-objekten för hela kvartar
+ * skapas en gång och återanvänds. Andra format går via {@link ZonedDateTime#parse}.
+ * <p>
+ * {@link #parse} ger en {@link ZonedDateTime} med tidsstämpelns egen förskjutning som zon, så lokal
+ * timme och dag ({@code getHour()}, {@code toLocalDate()}) är rena fältläsningar utan zonregler och
+ * blir rätt även de dagar sommartiden ändras (23 eller 25 timmar, 92 eller 100 kvartar).
+ */
+public final class Timestamps {
+
+    private static final int LENGTH = 25; // yyyy-MM-ddTHH:mm:ss+HH:MM
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final long DAYS_0000_TO_1970 = 719_528;
+
+    // Alla förskjutningar från -18:00 till +18:00 i hela kvartar
+    private static final int QUARTER = 900;
+    private static final int MAX_QUARTERS = 18 * 4;
+    private static final ZoneOffset[] OFFSETS = new ZoneOffset[2 * MAX_QUARTERS + 1];
+
+    static {
+        for (int i = 0; i < OFFSETS.length; i++) {
+            OFFSETS[i] = ZoneOffset.ofTotalSeconds((i - MAX_QUARTERS) * QUARTER);
+        }
+    }
+
+    private Timestamps() {
+    }
+
+    /**
+     * Tolkar en tidsstämpel till samma {@link ZonedDateTime} som {@link ZonedDateTime#parse} ger,
+     * med förskjutningen som zon.
+     */
+    public static ZonedDateTime parse(CharSequence text) {
+        if (!isCompact(text)) {
+            return ZonedDateTime.parse(text);
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        checkDate(text, year, month, day);
+        LocalDateTime local = LocalDateTime.of(year, month, day,
+                checkRange(text, 11, digits(text, 11, 2), 23),
+                checkRange(text, 14, digits(text, 14, 2), 59),
+                checkRange(text, 17, digits(text, 17, 2), 59));
+        ZoneOffset offset = offset(offsetSeconds(text));
+        return ZonedDateTime.ofLocal(local, offset, offset);
+    }
+
+    /** Tidsstämpelns tidpunkt i sekunder sedan 1970-01-01T00:00Z. */
+    public static long epochSecond(CharSequence text) {
+        if (!isCompact(text)) {
+            return ZonedDateTime.parse(text).toEpochSecond();
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        checkDate(text, year, month, day);
+        int hour = checkRange(text, 11, digits(text, 11, 2), 23);
+        int minute = checkRange(text, 14, digits(text, 14, 2), 59);
+        int second = checkRange(text, 17, digits(text, 17, 2), 59);
+        return epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second
+                - offsetSeconds(text);
+    }
+
+    /** Tidsstämpelns förskjutning från UTC i sekunder, t.ex. 7200 för {@code +02:00}. */
+    public static int offsetSeconds(CharSequence text) {
+        if (!isCompact(text)) {
+            return ZonedDateTime.parse(text).getOffset().getTotalSeconds();
+        }
+        int seconds = checkRange(text, 20, digits(text, 20, 2), 18) * 3600
+                + checkRange(text, 23, digits(text, 23, 2), 59) * 60;
+        return text.charAt(19) == '-' ? -seconds : seconds;
+    }
+
+    /** En delad {@link ZoneOffset} för förskjutningen; hela kvartar tas ur en färdig tabell. */
+    public static ZoneOffset offset(int offsetSeconds) {
+        if (offsetSeconds % QUARTER == 0 && Math.abs(offsetSeconds) <= MAX_QUARTERS * QUARTER) {
+            return OFFSETS[offsetSeconds / QUARTER + MAX_QUARTERS];
+        }
+        return ZoneOffset.ofTotalSeconds(offsetSeconds);
+    }
+
+    /** Bygger en {@link ZonedDateTime} med förskjutningen som zon från epoksekunder och förskjutning. */
+    public static ZonedDateTime toZonedDateTime(long epochSecond, int offsetSeconds) {
+        ZoneOffset offset = offset(offsetSeconds);
+        return ZonedDateTime.ofLocal(LocalDateTime.ofEpochSecond(epochSecond, 0, offset), offset, offset);
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    private static boolean isCompact(CharSequence text) {
+        if (text.length() != LENGTH) {
+            return false;
+        }
+        char sign = text.charAt(19);
+        return text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == 'T'
+                && text.charAt(13) == ':' && text.charAt(16) == ':'
+                && (sign == '+' || sign == '-') && text.charAt(22) == ':';
+    }
+
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException("Ogiltig siffra i tidsstämpel", text, i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int checkRange(CharSequence text, int index, int value, int max) {
+        if (value > max) {
+            throw new DateTimeParseException("Värdet " + value + " är utanför 0-" + max, text, index);
+        }
+        return value;
+    }
+
+    private static void checkDate(CharSequence text, int year, int month, int day) {
+        if (month < 1 || month > 12) {
+            throw new DateTimeParseException("Ogiltig månad " + month, text, 5);
+        }
+        if (day < 1 || day > Month.of(month).length(isLeap(year))) {
+            throw new DateTimeParseException("Ogiltig dag " + day, text, 8);
+        }
+    }
+
+    private static boolean isLeap(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /** Samma räkning som {@code LocalDate.toEpochDay()}, för år 0–9999, utan att skapa något objekt. */
+    private static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeap(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Priser för alla fyra elprisområden, justerade mot varandra per tidsperiod.
+ * <p>
+ * Endast tidsperioder som finns i samtliga områden tas med. Priserna lagras som
+ * primitiva arrayer, ett per område, så att analysen kan göras i ett enda svep.
+ * Alla perioder har samma längd: timpriser delas upp i kvartar om någon del av indata har kvartspriser.
+ */
+public final class ZoneSpread {
+
+    private static final ElpriserAPI.Prisklass[] ZONES = ElpriserAPI.Prisklass.values();
+
+    private final ZonedDateTime[] starts;
+    private final ZonedDateTime[] ends;
+    // prices[zon][period] i SEK/kWh, zon = Prisklass.ordinal()
+    private final double[][] prices;
+    // breaks[i] = antal luckor mellan perioderna 0 .. i
+    private final int[] breaks;
+    private final long slotSeconds;
+
+    /**
+     * Resultatet av en spridnings- och arbitrageanalys.
+     *
+     * @param spread skillnaden mellan dyraste och billigaste område per period (SEK/kWh)
+     * @param cheapestZone billigaste område per period (Prisklass.ordinal())
+     * @param dearestZone dyraste område per period (Prisklass.ordinal())
+     * @param correlation Pearson-korrelation mellan områdena, indexerad med Prisklass.ordinal()
+     * @param arbitrage bästa ladda-här/ladda-ur-där-fönster per områdespar, sorterade med störst vinst först
+     */
+    public record Analysis(
+        double[] spread,
+        int[] cheapestZone,
+        int[] dearestZone,
+        double[][] correlation,
+        List<Arbitrage> arbitrage
+    ) {}
+
+    /**
+     * Det bästa fönstret för att ladda i ett område och ladda ur i ett annat.
+     * Urladdningsfönstret börjar tidigast när laddningsfönstret har tagit slut.
+     *
+     * @param gainSekPerKWh summan av urladdningspriserna minus summan av laddningspriserna
+     */
+    public record Arbitrage(
+        ElpriserAPI.Prisklass chargeZone,
+        ElpriserAPI.Prisklass dischargeZone,
+        ZonedDateTime chargeStart,
+        ZonedDateTime chargeEnd,
+        ZonedDateTime dischargeStart,
+        ZonedDateTime dischargeEnd,
+        double gainSekPerKWh
+    ) {}
+
+    private ZoneSpread(ZonedDateTime[] starts, ZonedDateTime[] ends, double[][] prices, long slotSeconds) {
+        this.starts = starts;
+        this.ends = ends;
+        this.prices = prices;
+        this.slotSeconds = slotSeconds;
+        this.breaks = new int[starts.length];
+        for (int i = 1; i < starts.length; i++) {
+            breaks[i] = breaks[i - 1] + (starts[i].toEpochSecond() == ends[i - 1].toEpochSecond() ? 0 : 1);
+        }
+    }
+
+    /**
+     * Hämtar alla fyra områden parallellt för datumintervallet och justerar dem mot varandra.
+     *
+     * @param from första dagen
+     * @param toInclusive sista dagen (inklusive)
+     */
+    public static ZoneSpread fetch(ElpriserAPI api, LocalDate from, LocalDate toInclusive) {
+        List<List<ElpriserAPI.Elpris>> perZone = new ArrayList<>(ZONES.length);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<List<ElpriserAPI.Elpris>>> futures = new ArrayList<>(ZONES.length);
+            for (ElpriserAPI.Prisklass zone : ZONES) {
+                futures.add(CompletableFuture.supplyAsync(() -> PriceSeries.fetch(api, zone, from, toInclusive), executor));
+            }
+            for (CompletableFuture<List<ElpriserAPI.Elpris>> future : futures) {
+                perZone.add(future.join());
+            }
+        }
+        return align(perZone);
+    }
+
+    /**
+     * Justerar tidsordnade prislistor, en per område i Prisklass-ordning, på periodens starttid.
+     * Perioder som är längre än den kortaste i indata delas upp i perioder av den kortaste längden.
+     *
+     * @throws IllegalArgumentException om en period inte går att dela jämnt i den kortaste längden
+     */
+    public static ZoneSpread align(List<List<ElpriserAPI.Elpris>> perZone) {
+        if (perZone.size() != ZONES.length) {
+            throw new IllegalArgumentException("Förväntade " + ZONES.length + " områden, fick " + perZone.size());
+        }
+        long slotSeconds = Long.MAX_VALUE;
+        for (List<ElpriserAPI.Elpris> zonePrices : perZone) {
+            for (ElpriserAPI.Elpris pris : zonePrices) {
+                slotSeconds = Math.min(slotSeconds, seconds(pris));
+            }
+        }
+        if (slotSeconds == Long.MAX_VALUE) {
+            slotSeconds = 0;
+        } else {
+            List<List<ElpriserAPI.Elpris>> resampled = new ArrayList<>(ZONES.length);
+            for (List<ElpriserAPI.Elpris> zonePrices : perZone) {
+                resampled.add(resample(zonePrices, slotSeconds));
+            }
+            perZone = resampled;
+        }
+
+        int capacity = Integer.MAX_VALUE;
+        for (List<ElpriserAPI.Elpris> zonePrices : perZone) {
+            capacity = Math.min(capacity, zonePrices.size());
+        }
+
+        ZonedDateTime[] starts = new ZonedDateTime[capacity];
+        ZonedDateTime[] ends = new ZonedDateTime[capacity];
+        double[][] prices = new double[ZONES.length][capacity];
+        int[] cursor = new int[ZONES.length];
+        int count = 0;
+
+        outer:
+        while (true) {
+            // Hitta den senaste starttiden bland områdenas aktuella perioder
+            long target = Long.MIN_VALUE;
+            for (int z = 0; z < ZONES.length; z++) {
+                if (cursor[z] >= perZone.get(z).size()) {
+                    break outer;
+                }
+                target = Math.max(target, epochSecond(perZone.get(z).get(cursor[z])));
+            }
+            // Flytta fram alla områden som ligger efter, hoppa över perioder som saknas någonstans
+            boolean aligned = true;
+            for (int z = 0; z < ZONES.length; z++) {
+                List<ElpriserAPI.Elpris> zonePrices = perZone.get(z);
+                while (cursor[z] < zonePrices.size() && epochSecond(zonePrices.get(cursor[z])) < target) {
+                    cursor[z]++;
+                }
+                if (cursor[z] >= zonePrices.size()) {
+                    break outer;
+                }
+                aligned &= epochSecond(zonePrices.get(cursor[z])) == target;
+            }
+            if (!aligned) {
+                continue;
+            }
+            ElpriserAPI.Elpris first = perZone.get(0).get(cursor[0]);
+            starts[count] = first.timeStart();
+            ends[count] = first.timeEnd();
+            for (int z = 0; z < ZONES.length; z++) {
+                prices[z][count] = perZone.get(z).get(cursor[z]).sekPerKWh();
+                cursor[z]++;
+            }
+            count++;
+        }
+
+        if (count < capacity) {
+            starts = Arrays.copyOf(starts, count);
+            ends = Arrays.copyOf(ends, count);
+            for (int z = 0; z < ZONES.length; z++) {
+                prices[z] = Arrays.copyOf(prices[z], count);
+            }
+        }
+        return new ZoneSpread(starts, ends, prices, slotSeconds);
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public ZonedDateTime timeStart(int slot) {
+        return starts[slot];
+    }
+
+    public ZonedDateTime timeEnd(int slot) {
+        return ends[slot];
+    }
+
+    /** Längden på varje period i sekunder, eller 0 om det inte finns några perioder. */
+    public long slotSeconds() {
+        return slotSeconds;
+    }
+
+    /** Om de {@code slots} perioderna från och med {@code start} följer direkt på varandra, utan lucka. */
+    public boolean isContiguous(int start, int slots) {
+        return breaks[start + slots - 1] == breaks[start];
+    }
+
+    public double sekPerKWh(ElpriserAPI.Prisklass zone, int slot) {
+        return prices[zone.ordinal()][slot];
+    }
+
+    /**
+     * Räknar ut spridning, korrelation och bästa arbitragefönster i ett svep över perioderna.
+     * Fönster som går över en lucka i serien, t.ex. en dag som saknas, kommer inte i fråga.
+     *
+     * @param windowSlots antal perioder som laddning respektive urladdning pågår
+     */
+    public Analysis analyze(int windowSlots) {
+        if (windowSlots < 1) {
+            throw new IllegalArgumentException("Fönstret måste vara minst en period: " + windowSlots);
+        }
+        int zones = ZONES.length;
+        int n = size();
+
+        double[] spread = new double[n];
+        int[] cheapestZone = new int[n];
+        int[] dearestZone = new int[n];
+
+        // Löpande medelvärden och samvariationer (Welford), stabilt även för långa intervall
+        double[] mean = new double[zones];
+        double[][] comoment = new double[zones][zones];
+        double[] delta = new double[zones];
+
+        // Glidande fönstersummor per område, samt alla fönstersummor för att kunna se bakåt
+        double[] windowSum = new double[zones];
+        double[][] windowSums = new double[zones][Math.max(0, n - windowSlots + 1)];
+        // Billigaste laddningsfönster som slutar före nuvarande urladdningsfönster, per område
+        double[] bestChargeSum = new double[zones];
+        int[] bestChargeStart = new int[zones];
+        Arrays.fill(bestChargeSum, Double.POSITIVE_INFINITY);
+        Arrays.fill(bestChargeStart, -1);
+
+        double[][] bestGain = new double[zones][zones];
+        int[][] bestCharge = new int[zones][zones];
+        int[][] bestDischarge = new int[zones][zones];
+        for (int c = 0; c < zones; c++) {
+            Arrays.fill(bestGain[c], Double.NEGATIVE_INFINITY);
+            Arrays.fill(bestCharge[c], -1);
+        }
+
+        for (int t = 0; t < n; t++) {
+            int low = 0;
+            int high = 0;
+            for (int z = 0; z < zones; z++) {
+                double p = prices[z][t];
+                if (p < prices[low][t]) {
+                    low = z;
+                }
+                if (p > prices[high][t]) {
+                    high = z;
+                }
+                delta[z] = p - mean[z];
+                mean[z] += delta[z] / (t + 1);
+                windowSum[z] += p;
+                if (t >= windowSlots) {
+                    windowSum[z] -= prices[z][t - windowSlots];
+                }
+            }
+            spread[t] = prices[high][t] - prices[low][t];
+            cheapestZone[t] = low;
+            dearestZone[t] = high;
+            for (int i = 0; i < zones; i++) {
+                for (int j = i; j < zones; j++) {
+                    comoment[i][j] += delta[i] * (prices[j][t] - mean[j]);
+                }
+            }
+
+            int windowStart = t - windowSlots + 1;
+            if (windowStart < 0) {
+                continue;
+            }
+            // Ett fönster över en lucka kostar oändligt att ladda i och ger ingenting att ladda ur i
+            boolean contiguous = isContiguous(windowStart, windowSlots);
+            for (int z = 0; z < zones; z++) {
+                windowSums[z][windowStart] = contiguous ? windowSum[z] : Double.POSITIVE_INFINITY;
+                // Laddningsfönstret som slutar precis före detta urladdningsfönster blir valbart nu
+                int eligible = windowStart - windowSlots;
+                if (eligible >= 0 && windowSums[z][eligible] < bestChargeSum[z]) {
+                    bestChargeSum[z] = windowSums[z][eligible];
+                    bestChargeStart[z] = eligible;
+                }
+            }
+            for (int c = 0; c < zones; c++) {
+                if (bestChargeStart[c] < 0 || !contiguous) {
+                    continue;
+                }
+                for (int d = 0; d < zones; d++) {
+                    double gain = windowSum[d] - bestChargeSum[c];
+                    if (c != d && gain > bestGain[c][d]) {
+                        bestGain[c][d] = gain;
+                        bestCharge[c][d] = bestChargeStart[c];
+                        bestDischarge[c][d] = windowStart;
+                    }
+                }
+            }
+        }
+
+        double[][] correlation = new double[zones][zones];
+        for (int i = 0; i < zones; i++) {
+            for (int j = i; j < zones; j++) {
+                double denominator = Math.sqrt(comoment[i][i] * comoment[j][j]);
+                double r = denominator == 0 ? Double.NaN : comoment[i][j] / denominator;
+                correlation[i][j] = r;
+                correlation[j][i] = r;
+            }
+        }
+
+        List<Arbitrage> arbitrage = new ArrayList<>();
+        for (int c = 0; c < zones; c++) {
+            for (int d = 0; d < zones; d++) {
+                if (c != d && bestCharge[c][d] >= 0) {
+                    int charge = bestCharge[c][d];
+                    int discharge = bestDischarge[c][d];
+                    arbitrage.add(new Arbitrage(ZONES[c], ZONES[d],
+                            starts[charge], ends[charge + windowSlots - 1],
+                            starts[discharge], ends[discharge + windowSlots - 1],
+                            bestGain[c][d]));
+                }
+            }
+        }
+        arbitrage.sort(Comparator.comparingDouble(Arbitrage::gainSekPerKWh).reversed());
+
+        return new Analysis(spread, cheapestZone, dearestZone, correlation, List.copyOf(arbitrage));
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    private static long epochSecond(ElpriserAPI.Elpris pris) {
+        return pris.timeStart().toEpochSecond();
+    }
+
+    private static long seconds(ElpriserAPI.Elpris pris) {
+        return pris.timeEnd().toEpochSecond() - pris.timeStart().toEpochSecond();
+    }
+
+    /** Delar upp längre perioder i perioder om {@code slotSeconds} med samma pris; listan återanvänds om inget behöver delas. */
+    private static List<ElpriserAPI.Elpris> resample(List<ElpriserAPI.Elpris> zonePrices, long slotSeconds) {
+        boolean uniform = true;
+        for (ElpriserAPI.Elpris pris : zonePrices) {
+            uniform &= seconds(pris) == slotSeconds;
+        }
+        if (uniform) {
+            return zonePrices;
+        }
+        List<ElpriserAPI.Elpris> result = new ArrayList<>();
+        for (ElpriserAPI.Elpris pris : zonePrices) {
+            long seconds = seconds(pris);
+            if (seconds % slotSeconds != 0) {
+                throw new IllegalArgumentException("Perioden som börjar " + pris.timeStart()
+                        + " går inte att dela i perioder om " + slotSeconds + " sekunder");
+            }
+            for (long offset = 0; offset < seconds; offset += slotSeconds) {
+                result.add(new ElpriserAPI.Elpris(pris.sekPerKWh(), pris.eurPerKWh(), pris.exr(),
+                        pris.timeStart().plusSeconds(offset), pris.timeStart().plusSeconds(offset + slotSeconds)));
+            }
+        }
+        return result;
+    }
+}
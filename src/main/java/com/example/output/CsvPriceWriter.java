@@ -0,0 +1,198 @@
+package com.example.output;
+
+import com.example.api.BillSimulator;
+import com.example.api.ElpriserAPI;
+import com.example.api.ZoneSpread;
+
+import java.io.Writer;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+/**
+ * Comma-separated output with one record per line under a header.
+ * Columns that do not apply to a record type are left empty.
+ * <p>
+ * Cross-zone runs are written in long format: one {@code zone_price} row per zone and period,
+ * followed by a {@code spread} row whose zone columns name the cheapest and dearest zone.
+ * An arbitrage window is written as an {@code arbitrage_charge} and an {@code arbitrage_discharge} row.
+ * <p>
+ * Bill periods have columns of their own and are written under a separate header,
+ * one row per period with {@code day}, {@code month} or {@code total} as its type.
+ * The header is written before the first row that needs it, so a bill run has only the bill header.
+ */
+final class CsvPriceWriter extends PriceWriter {
+
+    private static final String PRICE_HEADER = "type,time_start,time_end,zone,other_zone,value,hours\n";
+    private static final String BILL_HEADER =
+            "type,time_start,time_end,zone,meter,kwh,cost,shifted_cost,saving,unpriced_kwh\n";
+
+    /** The header the rows written so far belong to, or null before the first row. */
+    private String header;
+
+    CsvPriceWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void mean(double sekPerKWh) {
+        header(PRICE_HEADER);
+        write("mean,,,,,");
+        writeNumber(sekPerKWh);
+        write(",\n");
+    }
+
+    @Override
+    public void cheapest(ElpriserAPI.Elpris price) {
+        writeRow("cheapest", price);
+    }
+
+    @Override
+    public void mostExpensive(ElpriserAPI.Elpris price) {
+        writeRow("most_expensive", price);
+    }
+
+    @Override
+    public void price(ElpriserAPI.Elpris price) {
+        writeRow("price", price);
+    }
+
+    @Override
+    public void chargingWindow(int hours, ElpriserAPI.Elpris first, ElpriserAPI.Elpris last, double totalSek) {
+        header(PRICE_HEADER);
+        write("charging,");
+        writeTime(first.timeStart());
+        write(',');
+        writeTime(last.timeEnd());
+        write(",,,");
+        writeNumber(totalSek);
+        write(',');
+        write(Integer.toString(hours));
+        write('\n');
+    }
+
+    @Override
+    public void spread(ZoneSpread spread, ZoneSpread.Analysis analysis, int slot) {
+        header(PRICE_HEADER);
+        for (ElpriserAPI.Prisklass zone : ZONES) {
+            writeSlot("zone_price", spread, slot, zone.name(), "", spread.sekPerKWh(zone, slot));
+        }
+        writeSlot("spread", spread, slot, ZONES[analysis.cheapestZone()[slot]].name(),
+                ZONES[analysis.dearestZone()[slot]].name(), analysis.spread()[slot]);
+    }
+
+    @Override
+    public void correlation(ElpriserAPI.Prisklass zone, ElpriserAPI.Prisklass otherZone, double coefficient) {
+        header(PRICE_HEADER);
+        write("correlation,,,");
+        write(zone.name());
+        write(',');
+        write(otherZone.name());
+        write(',');
+        writeNumber(coefficient);
+        write(",\n");
+    }
+
+    @Override
+    public void arbitrage(ZoneSpread.Arbitrage arbitrage) {
+        header(PRICE_HEADER);
+        writeArbitrage("arbitrage_charge", arbitrage.chargeStart(), arbitrage.chargeEnd(),
+                arbitrage.chargeZone(), arbitrage.dischargeZone(), arbitrage.gainSekPerKWh());
+        writeArbitrage("arbitrage_discharge", arbitrage.dischargeStart(), arbitrage.dischargeEnd(),
+                arbitrage.dischargeZone(), arbitrage.chargeZone(), arbitrage.gainSekPerKWh());
+    }
+
+    @Override
+    public void bill(BillSimulator.Period period) {
+        header(BILL_HEADER);
+        write(period.kind().name().toLowerCase(Locale.ROOT));
+        write(',');
+        writeTime(period.start());
+        write(',');
+        writeTime(period.end());
+        write(',');
+        write(period.prisklass().name());
+        write(',');
+        writeField(period.meter());
+        write(',');
+        writeNumber(period.kWh());
+        write(',');
+        writeNumber(period.costSek());
+        write(',');
+        writeNumber(period.shiftedCostSek());
+        write(',');
+        writeNumber(period.savingSek());
+        write(',');
+        writeNumber(period.unpricedKWh());
+        write('\n');
+    }
+
+    @Override
+    protected void finish() {
+        // An empty run still gets a header
+        if (header == null) {
+            header(PRICE_HEADER);
+        }
+    }
+
+    /** Writes {@code columns} unless the previous row was written under the same header. */
+    private void header(String columns) {
+        if (!columns.equals(header)) {
+            write(columns);
+            header = columns;
+        }
+    }
+
+    private void writeRow(String type, ElpriserAPI.Elpris price) {
+        header(PRICE_HEADER);
+        write(type);
+        write(',');
+        writeTime(price.timeStart());
+        write(',');
+        writeTime(price.timeEnd());
+        write(",,,");
+        writeNumber(price.sekPerKWh());
+        write(",\n");
+    }
+
+    private void writeSlot(String type, ZoneSpread spread, int slot, String zone, String otherZone, double value) {
+        write(type);
+        write(',');
+        writeTime(spread.timeStart(slot));
+        write(',');
+        writeTime(spread.timeEnd(slot));
+        write(',');
+        write(zone);
+        write(',');
+        write(otherZone);
+        write(',');
+        writeNumber(value);
+        write(",\n");
+    }
+
+    /** Writes a free-text field, quoted only when it contains a comma, quote or line break. */
+    private void writeField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            write(value);
+            return;
+        }
+        write('"');
+        write(value.replace("\"", "\"\""));
+        write('"');
+    }
+
+    private void writeArbitrage(String type, ZonedDateTime start, ZonedDateTime end,
+                                ElpriserAPI.Prisklass zone, ElpriserAPI.Prisklass otherZone, double gain) {
+        write(type);
+        write(',');
+        writeTime(start);
+        write(',');
+        writeTime(end);
+        write(',');
+        write(zone.name());
+        write(',');
+        write(otherZone.name());
+        write(',');
+        writeNumber(gain);
+        write(",\n");
+    }
+}
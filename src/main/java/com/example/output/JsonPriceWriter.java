@@ -0,0 +1,154 @@
+package com.example.output;
+
+import com.example.api.BillSimulator;
+import com.example.api.ElpriserAPI;
+import com.example.api.ZoneSpread;
+
+import java.io.Writer;
+
+/**
+ * A single JSON document. Repeated records (sorted rows, spread periods, correlations,
+ * arbitrage windows and bill periods) are streamed into arrays as they arrive; an array and the enclosing
+ * object are closed lazily when the next field starts or the writer is closed.
+ */
+final class JsonPriceWriter extends PriceWriter {
+
+    private boolean started;
+    private String openArray;
+
+    JsonPriceWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void mean(double sekPerKWh) {
+        field("mean_sek_per_kwh");
+        writeJsonNumber(sekPerKWh);
+    }
+
+    @Override
+    public void cheapest(ElpriserAPI.Elpris price) {
+        field("cheapest");
+        writeObject(price);
+    }
+
+    @Override
+    public void mostExpensive(ElpriserAPI.Elpris price) {
+        field("most_expensive");
+        writeObject(price);
+    }
+
+    @Override
+    public void price(ElpriserAPI.Elpris price) {
+        element("sorted");
+        writeObject(price);
+    }
+
+    @Override
+    public void chargingWindow(int hours, ElpriserAPI.Elpris first, ElpriserAPI.Elpris last, double totalSek) {
+        field("charging");
+        write("{\"hours\":");
+        write(Integer.toString(hours));
+        write(",\"time_start\":\"");
+        writeTime(first.timeStart());
+        write("\",\"time_end\":\"");
+        writeTime(last.timeEnd());
+        write("\",\"total_sek\":");
+        writeJsonNumber(totalSek);
+        write('}');
+    }
+
+    @Override
+    public void spread(ZoneSpread spread, ZoneSpread.Analysis analysis, int slot) {
+        element("spread");
+        write("{\"time_start\":\"");
+        writeTime(spread.timeStart(slot));
+        write("\",\"time_end\":\"");
+        writeTime(spread.timeEnd(slot));
+        write('"');
+        for (ElpriserAPI.Prisklass zone : ZONES) {
+            write(",\"");
+            write(zone.name());
+            write("\":");
+            writeJsonNumber(spread.sekPerKWh(zone, slot));
+        }
+        write(",\"spread\":");
+        writeJsonNumber(analysis.spread()[slot]);
+        write(",\"cheapest\":\"");
+        write(ZONES[analysis.cheapestZone()[slot]].name());
+        write("\",\"dearest\":\"");
+        write(ZONES[analysis.dearestZone()[slot]].name());
+        write("\"}");
+    }
+
+    @Override
+    public void correlation(ElpriserAPI.Prisklass zone, ElpriserAPI.Prisklass otherZone, double coefficient) {
+        element("correlation");
+        write("{\"zone\":\"");
+        write(zone.name());
+        write("\",\"other_zone\":\"");
+        write(otherZone.name());
+        write("\",\"coefficient\":");
+        writeJsonNumber(coefficient);
+        write('}');
+    }
+
+    @Override
+    public void arbitrage(ZoneSpread.Arbitrage arbitrage) {
+        element("arbitrage");
+        write('{');
+        writeArbitrageFields(arbitrage);
+        write('}');
+    }
+
+    @Override
+    public void bill(BillSimulator.Period period) {
+        element("bill");
+        write('{');
+        writeBillFields(period);
+        write('}');
+    }
+
+    @Override
+    protected void finish() {
+        closeArray();
+        write(started ? "}\n" : "{}\n");
+    }
+
+    private void field(String name) {
+        closeArray();
+        write(started ? ',' : '{');
+        started = true;
+        write('"');
+        write(name);
+        write("\":");
+    }
+
+    /** Starts the next element of array {@code name}, opening the array if it is not already open. */
+    private void element(String name) {
+        if (name.equals(openArray)) {
+            write(',');
+        } else {
+            field(name);
+            write('[');
+            openArray = name;
+        }
+    }
+
+    private void closeArray() {
+        if (openArray != null) {
+            write(']');
+            openArray = null;
+        }
+    }
+
+    private void writeObject(ElpriserAPI.Elpris price) {
+        write("{\"time_start\":\"");
+        writeTime(price.timeStart());
+        write("\",\"time_end\":\"");
+        writeTime(price.timeEnd());
+        write("\",\"sek_per_kwh\":");
+        writeJsonNumber(price.sekPerKWh());
+        write('}');
+    }
+}
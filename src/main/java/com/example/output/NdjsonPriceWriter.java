@@ -0,0 +1,112 @@
+package com.example.output;
+
+import com.example.api.BillSimulator;
+import com.example.api.ElpriserAPI;
+import com.example.api.ZoneSpread;
+
+import java.io.Writer;
+
+/**
+ * Newline-delimited JSON: every record is a self-contained object on its own line,
+ * tagged with a {@code "type"} field.
+ */
+final class NdjsonPriceWriter extends PriceWriter {
+
+    NdjsonPriceWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void mean(double sekPerKWh) {
+        write("{\"type\":\"mean\",\"sek_per_kwh\":");
+        writeJsonNumber(sekPerKWh);
+        write("}\n");
+    }
+
+    @Override
+    public void cheapest(ElpriserAPI.Elpris price) {
+        writeLine("cheapest", price);
+    }
+
+    @Override
+    public void mostExpensive(ElpriserAPI.Elpris price) {
+        writeLine("most_expensive", price);
+    }
+
+    @Override
+    public void price(ElpriserAPI.Elpris price) {
+        writeLine("price", price);
+    }
+
+    @Override
+    public void chargingWindow(int hours, ElpriserAPI.Elpris first, ElpriserAPI.Elpris last, double totalSek) {
+        write("{\"type\":\"charging\",\"hours\":");
+        write(Integer.toString(hours));
+        write(",\"time_start\":\"");
+        writeTime(first.timeStart());
+        write("\",\"time_end\":\"");
+        writeTime(last.timeEnd());
+        write("\",\"total_sek\":");
+        writeJsonNumber(totalSek);
+        write("}\n");
+    }
+
+    @Override
+    public void spread(ZoneSpread spread, ZoneSpread.Analysis analysis, int slot) {
+        write("{\"type\":\"spread\",\"time_start\":\"");
+        writeTime(spread.timeStart(slot));
+        write("\",\"time_end\":\"");
+        writeTime(spread.timeEnd(slot));
+        write('"');
+        for (ElpriserAPI.Prisklass zone : ZONES) {
+            write(",\"");
+            write(zone.name());
+            write("\":");
+            writeJsonNumber(spread.sekPerKWh(zone, slot));
+        }
+        write(",\"spread\":");
+        writeJsonNumber(analysis.spread()[slot]);
+        write(",\"cheapest\":\"");
+        write(ZONES[analysis.cheapestZone()[slot]].name());
+        write("\",\"dearest\":\"");
+        write(ZONES[analysis.dearestZone()[slot]].name());
+        write("\"}\n");
+    }
+
+    @Override
+    public void correlation(ElpriserAPI.Prisklass zone, ElpriserAPI.Prisklass otherZone, double coefficient) {
+        write("{\"type\":\"correlation\",\"zone\":\"");
+        write(zone.name());
+        write("\",\"other_zone\":\"");
+        write(otherZone.name());
+        write("\",\"coefficient\":");
+        writeJsonNumber(coefficient);
+        write("}\n");
+    }
+
+    @Override
+    public void arbitrage(ZoneSpread.Arbitrage arbitrage) {
+        write("{\"type\":\"arbitrage\",");
+        writeArbitrageFields(arbitrage);
+        write("}\n");
+    }
+
+    @Override
+    public void bill(BillSimulator.Period period) {
+        write("{\"type\":\"bill\",");
+        writeBillFields(period);
+        write("}\n");
+    }
+
+    private void writeLine(String type, ElpriserAPI.Elpris price) {
+        write("{\"type\":\"");
+        write(type);
+        write("\",\"time_start\":\"");
+        writeTime(price.timeStart());
+        write("\",\"time_end\":\"");
+        writeTime(price.timeEnd());
+        write("\",\"sek_per_kwh\":");
+        writeJsonNumber(price.sekPerKWh());
+        write("}\n");
+    }
+}
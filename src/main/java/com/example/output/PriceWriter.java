@@ -0,0 +1,203 @@
+package com.example.output;
+
+import com.example.api.BillSimulator;
+import com.example.api.ElpriserAPI;
+import com.example.api.ZoneSpread;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Writes the results of a price run (mean, min/max, sorted rows and charging window,
+ * a cross-zone spread analysis, or a simulated electricity bill) in one of several output formats.
+ * <p>
+ * All output goes through a single buffered writer and rows are written as they arrive,
+ * so nothing is collected in memory regardless of how long the range is. Call
+ * {@link #close()} to finish the document and flush; the underlying stream is left open.
+ */
+public abstract class PriceWriter implements Closeable {
+
+    public enum Format {
+        TEXT, CSV, JSON, NDJSON;
+
+        /**
+         * Parses a format name case-insensitively, e.g. "csv" or "NDJSON".
+         * @throws IllegalArgumentException if the name is not a known format
+         */
+        public static Format parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Shared copy of {@code Prisklass.values()}, which otherwise clones the array on every call. */
+    protected static final ElpriserAPI.Prisklass[] ZONES = ElpriserAPI.Prisklass.values();
+
+    private final Writer out;
+
+    protected PriceWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Creates a writer for the given format on top of a buffered UTF-8 writer for {@code stream}.
+     */
+    public static PriceWriter create(Format format, OutputStream stream) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return switch (format) {
+            case TEXT -> new TextPriceWriter(writer);
+            case CSV -> new CsvPriceWriter(writer);
+            case JSON -> new JsonPriceWriter(writer);
+            case NDJSON -> new NdjsonPriceWriter(writer);
+        };
+    }
+
+    public abstract void mean(double sekPerKWh);
+
+    public abstract void cheapest(ElpriserAPI.Elpris price);
+
+    public abstract void mostExpensive(ElpriserAPI.Elpris price);
+
+    /** One row of the sorted price list. */
+    public abstract void price(ElpriserAPI.Elpris price);
+
+    /** The cheapest charging window, from {@code first} to {@code last} inclusive. */
+    public abstract void chargingWindow(int hours, ElpriserAPI.Elpris first, ElpriserAPI.Elpris last, double totalSek);
+
+    /** One aligned period of a cross-zone run: the price in every zone and the spread between them. */
+    public abstract void spread(ZoneSpread spread, ZoneSpread.Analysis analysis, int slot);
+
+    public abstract void correlation(ElpriserAPI.Prisklass zone, ElpriserAPI.Prisklass otherZone, double coefficient);
+
+    public abstract void arbitrage(ZoneSpread.Arbitrage arbitrage);
+
+    /** The simulated cost of one meter for a day, a month or the whole file. */
+    public abstract void bill(BillSimulator.Period period);
+
+    /** Writes the JSON members shared by the JSON formats, without the surrounding braces. */
+    protected final void writeArbitrageFields(ZoneSpread.Arbitrage arbitrage) {
+        write("\"charge_zone\":\"");
+        write(arbitrage.chargeZone().name());
+        write("\",\"discharge_zone\":\"");
+        write(arbitrage.dischargeZone().name());
+        write("\",\"charge_start\":\"");
+        writeTime(arbitrage.chargeStart());
+        write("\",\"charge_end\":\"");
+        writeTime(arbitrage.chargeEnd());
+        write("\",\"discharge_start\":\"");
+        writeTime(arbitrage.dischargeStart());
+        write("\",\"discharge_end\":\"");
+        writeTime(arbitrage.dischargeEnd());
+        write("\",\"gain_sek_per_kwh\":");
+        writeJsonNumber(arbitrage.gainSekPerKWh());
+    }
+
+    /** Writes the JSON members of a bill period, without the surrounding braces. */
+    protected final void writeBillFields(BillSimulator.Period period) {
+        write("\"meter\":\"");
+        writeJsonString(period.meter());
+        write("\",\"zone\":\"");
+        write(period.prisklass().name());
+        write("\",\"period\":\"");
+        write(period.kind().name().toLowerCase(Locale.ROOT));
+        write("\",\"time_start\":\"");
+        writeTime(period.start());
+        write("\",\"time_end\":\"");
+        writeTime(period.end());
+        write("\",\"kwh\":");
+        writeJsonNumber(period.kWh());
+        write(",\"cost_sek\":");
+        writeJsonNumber(period.costSek());
+        write(",\"shifted_cost_sek\":");
+        writeJsonNumber(period.shiftedCostSek());
+        write(",\"saving_sek\":");
+        writeJsonNumber(period.savingSek());
+        write(",\"unpriced_kwh\":");
+        writeJsonNumber(period.unpricedKWh());
+    }
+
+    /** Writes the characters of a JSON string value, escaping quotes, backslashes and control characters. */
+    protected final void writeJsonString(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                write('\\');
+                write(c);
+            } else if (c < 0x20) {
+                write(String.format("\\u%04x", (int) c));
+            } else {
+                write(c);
+            }
+        }
+    }
+
+    /** Writes whatever is needed to end the document. Called once, from {@link #close()}. */
+    protected void finish() {
+    }
+
+    /**
+     * Pushes buffered rows to the stream without ending the document. Call it before writing
+     * anything else to the same stream, so that line lands after the rows written so far.
+     */
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        finish();
+        flush();
+    }
+
+    // --- Helpers for subclasses ---
+
+    protected final void write(String s) {
+        try {
+            out.write(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected final void write(char c) {
+        try {
+            out.write(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Writes a locale-independent number; {@link Double#toString} is exact and round-trips. */
+    protected final void writeNumber(double value) {
+        write(Double.toString(value));
+    }
+
+    /** Like {@link #writeNumber} but writes {@code null} for NaN and infinities, which JSON cannot represent. */
+    protected final void writeJsonNumber(double value) {
+        write(Double.isFinite(value) ? Double.toString(value) : "null");
+    }
+
+    protected final void writeTime(ZonedDateTime time) {
+        DateTimeFormatter.ISO_OFFSET_DATE_TIME.formatTo(time, out);
+    }
+
+    /** Writes a number as exactly two digits, e.g. 7 as "07". */
+    protected final void writeTwoDigits(int value) {
+        write((char) ('0' + value / 10));
+        write((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.output;
+
+import com.example.api.BillSimulator;
+import com.example.api.ElpriserAPI;
+import com.example.api.ZoneSpread;
+
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+/**
+ * Human-readable Swedish output, the same lines {@code Main} has always printed.
+ * Decimal formatters are created once per writer instead of once per line, and round
+ * exactly like the {@code String.format} calls they replace (see {@link #format}).
+ */
+final class TextPriceWriter extends PriceWriter {
+
+    private final DecimalFormat sekFormat;
+    private final DecimalFormat oreFormat;
+    private final DecimalFormat tenthsFormat;
+
+    TextPriceWriter(Writer out) {
+        super(out);
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.of("sv", "SE"));
+        // Swedish CLDR data uses U+2212 as minus sign; negative prices should stay plain ASCII
+        symbols.setMinusSign('-');
+        this.sekFormat = decimalFormat("0.000", symbols);
+        this.oreFormat = decimalFormat("0.00", symbols);
+        this.tenthsFormat = decimalFormat("0.0", symbols);
+    }
+
+    private static DecimalFormat decimalFormat(String pattern, DecimalFormatSymbols symbols) {
+        DecimalFormat format = new DecimalFormat(pattern, symbols);
+        // String.format rounds half up; DecimalFormat defaults to half even
+        format.setRoundingMode(RoundingMode.HALF_UP);
+        return format;
+    }
+
+    /**
+     * Formats like {@code String.format("%.Nf")}: that rounds the shortest decimal form of the double
+     * ({@link Double#toString}), not its exact binary value, so 0.0075 becomes 0.008 rather than 0.007.
+     */
+    private static String format(DecimalFormat format, double value) {
+        return Double.isFinite(value) ? format.format(BigDecimal.valueOf(value)) : format.format(value);
+    }
+
+    @Override
+    public void mean(double sekPerKWh) {
+        write("Medelpris: ");
+        write(format(sekFormat, sekPerKWh));
+        write(" SEK/kWh\n");
+    }
+
+    @Override
+    public void cheapest(ElpriserAPI.Elpris price) {
+        write("Lägsta pris: ");
+        writeExtreme(price);
+    }
+
+    @Override
+    public void mostExpensive(ElpriserAPI.Elpris price) {
+        write("Högsta pris: ");
+        writeExtreme(price);
+    }
+
+    @Override
+    public void price(ElpriserAPI.Elpris price) {
+        writeHourRange(price);
+        write(' ');
+        write(format(oreFormat, price.sekPerKWh() * 100));
+        write(" öre\n");
+    }
+
+    @Override
+    public void chargingWindow(int hours, ElpriserAPI.Elpris first, ElpriserAPI.Elpris last, double totalSek) {
+        write("Påbörja laddning: bästa ");
+        write(Integer.toString(hours));
+        write("h-fönster startar kl ");
+        writeTwoDigits(first.timeStart().getHour());
+        write(":00 (total kostnad: ");
+        write(format(tenthsFormat, totalSek * 100));
+        write(" öre)\n");
+    }
+
+    @Override
+    public void spread(ZoneSpread spread, ZoneSpread.Analysis analysis, int slot) {
+        writeDateTime(spread.timeStart(slot));
+        for (ElpriserAPI.Prisklass zone : ZONES) {
+            write(' ');
+            write(zone.name());
+            write(' ');
+            write(format(oreFormat, spread.sekPerKWh(zone, slot) * 100));
+        }
+        write(" öre, spridning ");
+        write(format(oreFormat, analysis.spread()[slot] * 100));
+        write(" öre (");
+        write(ZONES[analysis.cheapestZone()[slot]].name());
+        write(" -> ");
+        write(ZONES[analysis.dearestZone()[slot]].name());
+        write(")\n");
+    }
+
+    @Override
+    public void correlation(ElpriserAPI.Prisklass zone, ElpriserAPI.Prisklass otherZone, double coefficient) {
+        write("Korrelation ");
+        write(zone.name());
+        write('/');
+        write(otherZone.name());
+        write(": ");
+        write(format(sekFormat, coefficient));
+        write('\n');
+    }
+
+    @Override
+    public void arbitrage(ZoneSpread.Arbitrage arbitrage) {
+        write("Ladda i ");
+        write(arbitrage.chargeZone().name());
+        write(' ');
+        writeDateTime(arbitrage.chargeStart());
+        write(", ladda ur i ");
+        write(arbitrage.dischargeZone().name());
+        write(' ');
+        writeDateTime(arbitrage.dischargeStart());
+        write(": vinst ");
+        write(format(oreFormat, arbitrage.gainSekPerKWh() * 100));
+        write(" öre/kWh\n");
+    }
+
+    @Override
+    public void bill(BillSimulator.Period period) {
+        switch (period.kind()) {
+            case DAY -> {
+                write("Dag ");
+                writeDate(period.start(), true);
+            }
+            case MONTH -> {
+                write("Månad ");
+                writeDate(period.start(), false);
+            }
+            case TOTAL -> write("Totalt");
+        }
+        write(" (");
+        write(period.meter());
+        write(", ");
+        write(period.prisklass().name());
+        write("): ");
+        write(format(oreFormat, period.kWh()));
+        write(" kWh, ");
+        write(format(oreFormat, period.costSek()));
+        write(" kr, med lastförskjutning ");
+        write(format(oreFormat, period.shiftedCostSek()));
+        write(" kr (besparing ");
+        write(format(oreFormat, period.savingSek()));
+        write(" kr)");
+        if (period.unpricedKWh() > 0) {
+            write(", utan pris ");
+            write(format(oreFormat, period.unpricedKWh()));
+            write(" kWh");
+        }
+        write('\n');
+    }
+
+    private void writeExtreme(ElpriserAPI.Elpris price) {
+        writeHourRange(price);
+        write(" -> ");
+        write(format(tenthsFormat, price.sekPerKWh() * 100));
+        write(" öre\n");
+    }
+
+    private void writeHourRange(ElpriserAPI.Elpris price) {
+        int startHour = price.timeStart().getHour();
+        writeTwoDigits(startHour);
+        write('-');
+        writeTwoDigits((startHour + 1) % 24);
+    }
+
+    /** Writes e.g. "2025-09-04", or "2025-09" without the day. */
+    private void writeDate(ZonedDateTime time, boolean withDay) {
+        write(Integer.toString(time.getYear()));
+        write('-');
+        writeTwoDigits(time.getMonthValue());
+        if (withDay) {
+            write('-');
+            writeTwoDigits(time.getDayOfMonth());
+        }
+    }
+
+    /** Writes e.g. "2025-09-04 13:00" without going through a DateTimeFormatter. */
+    private void writeDateTime(ZonedDateTime time) {
+        writeDate(time, true);
+        write(' ');
+        writeTwoDigits(time.getHour());
+        write(':');
+        writeTwoDigits(time.getMinute());
+    }
+}
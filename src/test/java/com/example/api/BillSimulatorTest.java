@@ -0,0 +1,192 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class BillSimulatorTest {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void simulate_joinsHourlyReadingsWithQuarterPricesPerDayAndMonth() throws IOException {
+        // 0.20 SEK/kWh 00:00-02:00, 1.00 the rest of the day, in 15-minute slots
+        ElpriserAPI.setMockResponseFunction((date, zone) -> quarterPrices(date));
+        BillSimulator simulator = new BillSimulator(new ElpriserAPI(false), ElpriserAPI.Prisklass.SE3,
+                new BillSimulator.LoadShift(0.5, 2));
+        StringBuilder csv = new StringBuilder("Tid;Förbrukning (kWh)\n");
+        for (LocalDate day = LocalDate.of(2025, 10, 31); day.isBefore(LocalDate.of(2025, 11, 2)); day = day.plusDays(1)) {
+            for (int hour = 0; hour < 24; hour++) {
+                csv.append(day).append(' ').append(hour < 10 ? "0" : "").append(hour).append(":00;1,0\n");
+            }
+        }
+        List<BillSimulator.Period> periods = new ArrayList<>();
+
+        BillSimulator.Period total = simulator.simulate("m1", new BufferedReader(new StringReader(csv.toString())), periods::add);
+
+        assertThat(periods).extracting(BillSimulator.Period::kind).containsExactly(
+                BillSimulator.Kind.DAY, BillSimulator.Kind.MONTH, BillSimulator.Kind.DAY, BillSimulator.Kind.MONTH);
+        BillSimulator.Period day = periods.get(0);
+        assertThat(day.kWh()).isCloseTo(24.0, within(1e-9));
+        assertThat(day.costSek()).isCloseTo(2 * 0.20 + 22 * 1.00, within(1e-9));
+        // Half of the 24 kWh moved into the 00:00-02:00 window at 0.20
+        assertThat(day.shiftedCostSek()).isCloseTo(0.5 * 22.4 + 12 * 0.20, within(1e-9));
+        assertThat(periods.get(1).start().toLocalDate()).isEqualTo(LocalDate.of(2025, 10, 1));
+        assertThat(periods.get(1).end().toLocalDate()).isEqualTo(LocalDate.of(2025, 11, 1));
+        assertThat(total.kind()).isEqualTo(BillSimulator.Kind.TOTAL);
+        assertThat(total.costSek()).isCloseTo(44.8, within(1e-9));
+        assertThat(total.savingSek()).isCloseTo(2 * 8.8, within(1e-9));
+        assertThat(total.unpricedKWh()).isZero();
+    }
+
+    @Test
+    void simulate_countsReadingsWithoutPricesAsUnpricedAndRejectsUnorderedRows() {
+        ElpriserAPI.setMockResponseFunction((date, zone) -> "[]");
+        BillSimulator simulator = new BillSimulator(new ElpriserAPI(false), ElpriserAPI.Prisklass.SE1,
+                BillSimulator.LoadShift.NONE);
+        String csv = "timestamp,kwh\n2025-09-04T00:00:00+02:00,0.5\n2025-09-04T00:15:00+02:00,0.25\n";
+
+        BillSimulator.Period total = simulate(simulator, csv);
+
+        assertThat(total.kWh()).isCloseTo(0.75, within(1e-9));
+        assertThat(total.unpricedKWh()).isCloseTo(0.75, within(1e-9));
+        assertThat(total.costSek()).isZero();
+
+        assertThatThrownBy(() -> simulator.simulate("m", new BufferedReader(new StringReader(
+                "2025-09-04T01:00:00+02:00,1\n2025-09-04T00:00:00+02:00,1\n")), p -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("rad 2");
+    }
+
+    @Test
+    void simulate_splitsAReadingThatCrossesMidnightIntoBothDays() throws IOException {
+        ElpriserAPI.setMockResponseFunction((date, zone) -> quarterPrices(date));
+        BillSimulator simulator = new BillSimulator(new ElpriserAPI(false), ElpriserAPI.Prisklass.SE3,
+                BillSimulator.LoadShift.NONE);
+        // An hourly reading at 23:30: half at 1.00 before midnight, half at 0.20 after
+        String csv = "2025-10-01 23:30;1,0\n2025-10-02 00:30;0,0\n";
+        List<BillSimulator.Period> periods = new ArrayList<>();
+
+        BillSimulator.Period total = simulator.simulate("m", new BufferedReader(new StringReader(csv)), periods::add);
+
+        BillSimulator.Period first = periods.get(0);
+        BillSimulator.Period second = periods.get(1);
+        assertThat(first.start().toLocalDate()).isEqualTo(LocalDate.of(2025, 10, 1));
+        assertThat(first.kWh()).isCloseTo(0.5, within(1e-9));
+        assertThat(first.costSek()).isCloseTo(0.5 * 1.00, within(1e-9));
+        assertThat(second.start().toLocalDate()).isEqualTo(LocalDate.of(2025, 10, 2));
+        assertThat(second.kWh()).isCloseTo(0.5, within(1e-9));
+        assertThat(second.costSek()).isCloseTo(0.5 * 0.20, within(1e-9));
+        assertThat(total.costSek()).isCloseTo(0.60, within(1e-9));
+        assertThat(total.unpricedKWh()).isZero();
+    }
+
+    @Test
+    void simulate_billsBothRepeatedHoursAgainstTheirOwnQuarters() {
+        // 2025-10-26 has 02:00-03:00 twice: 0.50 in summer time (+02:00), 2.00 after the clocks go back
+        ElpriserAPI.setMockResponseFunction((date, zone) -> quarterPrices(date,
+                t -> t.getHour() != 2 ? 1.00 : t.getOffset().getTotalSeconds() == 7200 ? 0.50 : 2.00));
+        BillSimulator simulator = new BillSimulator(new ElpriserAPI(false), ElpriserAPI.Prisklass.SE3,
+                BillSimulator.LoadShift.NONE);
+        String csv = """
+                2025-10-26 02:00;1,0
+                2025-10-26 02:15;0,0
+                2025-10-26 02:30;0,0
+                2025-10-26 02:45;0,0
+                2025-10-26 02:00;3,0
+                2025-10-26 02:15;0,0
+                2025-10-26 02:30;0,0
+                2025-10-26 02:45;0,0
+                2025-10-26 03:00;0,0
+                """;
+
+        BillSimulator.Period total = simulate(simulator, csv);
+
+        assertThat(total.kWh()).isCloseTo(4.0, within(1e-9));
+        assertThat(total.costSek()).isCloseTo(1 * 0.50 + 3 * 2.00, within(1e-9));
+        assertThat(total.unpricedKWh()).isZero();
+    }
+
+    @Test
+    void simulateAll_returnsOneTotalPerFileInOrder(@TempDir Path dir) throws IOException {
+        AtomicInteger fetches = new AtomicInteger();
+        ElpriserAPI.setMockResponseFunction((date, zone) -> {
+            fetches.incrementAndGet();
+            return quarterPrices(date);
+        });
+        // Without the API's cache, so only the simulator can share a day between files
+        BillSimulator simulator = new BillSimulator(new ElpriserAPI(false), ElpriserAPI.Prisklass.SE3,
+                BillSimulator.LoadShift.NONE);
+        List<Path> files = new ArrayList<>();
+        for (int meter = 0; meter < 8; meter++) {
+            Path file = dir.resolve("meter" + meter + ".csv");
+            // One kWh per quarter at 00:00-00:45, meter i reads (i + 1) times as much
+            Files.writeString(file, "2025-10-01T00:00:00+02:00," + (meter + 1) + "\n"
+                    + "2025-10-01T00:15:00+02:00," + (meter + 1) + "\n"
+                    + "2025-10-01T00:30:00+02:00," + (meter + 1) + "\n");
+            files.add(file);
+        }
+
+        List<BillSimulator.Period> totals = simulator.simulateAll(files, 4);
+
+        assertThat(totals).hasSize(8);
+        for (int meter = 0; meter < 8; meter++) {
+            assertThat(totals.get(meter).meter()).isEqualTo("meter" + meter + ".csv");
+            assertThat(totals.get(meter).costSek()).isCloseTo(3 * (meter + 1) * 0.20, within(1e-9));
+        }
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    private static BillSimulator.Period simulate(BillSimulator simulator, String csv) {
+        try {
+            return simulator.simulate("m", new BufferedReader(new StringReader(csv)), p -> { });
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String quarterPrices(LocalDate date) {
+        return quarterPrices(date, t -> t.getHour() < 2 ? 0.20 : 1.00);
+    }
+
+    private static String quarterPrices(LocalDate date, ToDoubleFunction<ZonedDateTime> price) {
+        StringBuilder json = new StringBuilder("[");
+        ZonedDateTime start = date.atStartOfDay(STOCKHOLM);
+        ZonedDateTime end = date.plusDays(1).atStartOfDay(STOCKHOLM);
+        for (ZonedDateTime t = start; t.isBefore(end); t = t.plusMinutes(15)) {
+            double sek = price.applyAsDouble(t);
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"SEK_per_kWh\":").append(sek)
+                    .append(",\"EUR_per_kWh\":").append(sek / 10)
+                    .append(",\"EXR\":10.0,\"time_start\":\"").append(t.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+                    .append("\",\"time_end\":\"").append(t.plusMinutes(15).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+                    .append("\"}");
+        }
+        return json.append(']').toString();
+    }
+}
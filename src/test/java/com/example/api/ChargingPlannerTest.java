@@ -0,0 +1,151 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static com.example.api.TestPrices.MIDNIGHT;
+import static com.example.api.TestPrices.hours;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ChargingPlannerTest {
+
+    private static final ElpriserAPI.Prisklass SE3 = ElpriserAPI.Prisklass.SE3;
+
+    @Test
+    void cheapestStart_matchesBruteForceIncludingEarliestOnTies() {
+        SplittableRandom random = new SplittableRandom(7);
+        double[] values = new double[48];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(5) / 4.0; // few distinct, exactly representable prices
+        }
+        ChargingIndex index = ChargingIndex.of(hours(values));
+
+        for (int round = 0; round < 2000; round++) {
+            int from = random.nextInt(values.length);
+            int to = random.nextInt(from, values.length + 1);
+            int slots = random.nextInt(1, 9);
+
+            int expected = -1;
+            for (int s = from; s + slots <= to; s++) {
+                if (expected < 0 || index.windowCost(s, slots) < index.windowCost(expected, slots)) {
+                    expected = s;
+                }
+            }
+            assertThat(index.cheapestStart(from, to, slots)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void cheapestStart_prefersTheEarlierOfTwoEqualWindowsLateInALongSeries() {
+        SplittableRandom random = new SplittableRandom(3);
+        double[] values = new double[20_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble(0.5, 3.0);
+        }
+        // The same cheap window twice, far enough into the series that the prefix sums carry rounding noise
+        double[] cheap = {0.1234567, 0.0987654, 0.1111111, 0.0765432};
+        for (int i = 0; i < cheap.length; i++) {
+            values[17_001 + i] = cheap[i];
+            values[19_003 + i] = cheap[i];
+        }
+
+        ChargingIndex index = ChargingIndex.of(hours(values));
+
+        assertThat(index.cheapestStart(0, values.length, cheap.length)).isEqualTo(17_001);
+        assertThat(index.cheapestStart(17_002, values.length, cheap.length)).isEqualTo(19_003);
+    }
+
+    @Test
+    void planAll_respectsPlugInAndDepartureTimes() {
+        ChargingPlanner planner = ChargingPlanner.of(Map.of(SE3,
+                hours(0.10, 0.90, 0.20, 0.20, 0.80, 0.05, 0.05, 0.90)));
+        List<ChargingPlanner.Vehicle> vehicles = List.of(
+                vehicle("a", 0, 8, 2),   // whole day: 05:00-07:00
+                vehicle("b", 0, 5, 2),   // must leave at 05:00: 02:00-04:00
+                vehicle("c", 6, 8, 3));  // only two hours plugged in
+
+        List<ChargingPlanner.Plan> plans = planner.planAll(vehicles);
+
+        assertThat(plans.get(0).start().getHour()).isEqualTo(5);
+        assertThat(plans.get(0).costSek()).isCloseTo(0.10 * 11, within(1e-9));
+        assertThat(plans.get(1).start().getHour()).isEqualTo(2);
+        assertThat(plans.get(1).end().getHour()).isEqualTo(4);
+        assertThat(plans.get(2).scheduled()).isFalse();
+    }
+
+    @Test
+    void planAll_withCapacityMovesLaterDeparturesToTheNextCheapestFreeWindow() {
+        ChargingPlanner planner = ChargingPlanner.of(Map.of(SE3,
+                hours(0.50, 0.10, 0.10, 0.50, 0.30, 0.30, 0.50, 0.50)));
+        List<ChargingPlanner.Vehicle> vehicles = List.of(
+                vehicle("late", 0, 8, 2),
+                vehicle("early", 0, 6, 2));
+
+        List<ChargingPlanner.Plan> unlimited = planner.planAll(vehicles);
+        List<ChargingPlanner.Plan> limited = planner.planAll(vehicles, 11.0);
+
+        assertThat(unlimited).allSatisfy(plan -> assertThat(plan.start().getHour()).isEqualTo(1));
+        // Earliest departure is planned first and keeps 01:00-03:00
+        assertThat(limited.get(1).start().getHour()).isEqualTo(1);
+        assertThat(limited.get(0).start().getHour()).isEqualTo(4);
+    }
+
+    @Test
+    void planAll_scalesHoursToQuarterHourPrices() {
+        double[] quarters = new double[96];
+        for (int i = 0; i < quarters.length; i++) {
+            quarters[i] = i >= 40 && i < 48 ? 0.05 : 0.50;
+        }
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>();
+        for (int i = 0; i < quarters.length; i++) {
+            prices.add(new ElpriserAPI.Elpris(quarters[i], quarters[i] / 10, 10.0,
+                    MIDNIGHT.plusMinutes(15L * i), MIDNIGHT.plusMinutes(15L * (i + 1))));
+        }
+        ChargingPlanner planner = ChargingPlanner.of(Map.of(SE3, prices));
+
+        ChargingPlanner.Plan plan = planner.plan(vehicle("q", 0, 24, 2));
+
+        assertThat(plan.start().getHour()).isEqualTo(10);
+        assertThat(plan.end().getHour()).isEqualTo(12);
+        assertThat(plan.costSek()).isCloseTo(0.05 * 2 * 11, within(1e-9));
+    }
+
+    @Test
+    void plan_neverSpansAMissingDay() {
+        // 2025-09-05 is missing: cheap hours at 22-24 on the 4th and 00-02 on the 6th are not adjacent
+        ZonedDateTime sixth = MIDNIGHT.plusDays(2);
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>();
+        for (ZonedDateTime day : List.of(MIDNIGHT, sixth)) {
+            for (int hour = 0; hour < 24; hour++) {
+                boolean cheap = day == MIDNIGHT ? hour >= 22 : hour < 2;
+                double sek = cheap ? 0.01 : 0.50;
+                prices.add(new ElpriserAPI.Elpris(sek, sek / 10, 10.0, day.plusHours(hour), day.plusHours(hour + 1)));
+            }
+        }
+        ChargingPlanner planner = ChargingPlanner.of(Map.of(SE3, prices));
+
+        ChargingPlanner.Plan four = planner.plan(new ChargingPlanner.Vehicle("a", SE3,
+                MIDNIGHT.plusHours(20), sixth.plusHours(4), 4, 11.0));
+        ChargingPlanner.Plan acrossGapOnly = planner.plan(new ChargingPlanner.Vehicle("b", SE3,
+                MIDNIGHT.plusHours(22), sixth.plusHours(2), 3, 11.0));
+        List<ChargingPlanner.Plan> limited = planner.planAll(List.of(new ChargingPlanner.Vehicle("c", SE3,
+                MIDNIGHT.plusHours(22), sixth.plusHours(2), 3, 11.0)), 22.0);
+
+        // Both one-day windows cost the same; the earliest wins
+        assertThat(four.start()).isEqualTo(MIDNIGHT.plusHours(20));
+        assertThat(four.end()).isEqualTo(MIDNIGHT.plusDays(1));
+        assertThat(acrossGapOnly.scheduled()).isFalse();
+        assertThat(limited.get(0).scheduled()).isFalse();
+    }
+
+    private static ChargingPlanner.Vehicle vehicle(String id, int plugInHour, int departureHour, int hours) {
+        return new ChargingPlanner.Vehicle(id, SE3, MIDNIGHT.plusHours(plugInHour), MIDNIGHT.plusHours(departureHour),
+                hours, 11.0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElpriserAPIPublisherTest {
+
+    private static final LocalDate DATUM = LocalDate.of(2025, 9, 4);
+
+    private static final String JSON = """
+            [{"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""";
+
+    private static final String REVISED_JSON = """
+            [{"SEK_per_kWh":0.35,"EUR_per_kWh":0.035,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""";
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void subscriber_receivesNewAndChangedSeriesOnly() throws Exception {
+        ElpriserAPI api = new ElpriserAPI(true);
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        api.getPublisher(ElpriserAPI.Prisklass.SE3).subscribe(subscriber);
+        assertThat(subscriber.subscribed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ElpriserAPI.setMockResponseForDate(DATUM, JSON);
+        api.getPriser(DATUM, ElpriserAPI.Prisklass.SE3);
+        ElpriserAPI.Prisuppdatering first = subscriber.received.poll(5, TimeUnit.SECONDS);
+        assertThat(first).isNotNull();
+        assertThat(first.priser().get(0).sekPerKWh()).isEqualTo(0.30);
+
+        // Same data again: cache hit and an unchanged refresh publish nothing
+        api.getPriser(DATUM, ElpriserAPI.Prisklass.SE3);
+        api.refresh(DATUM, ElpriserAPI.Prisklass.SE3);
+
+        ElpriserAPI.setMockResponseForDate(DATUM, REVISED_JSON);
+        api.refresh(DATUM, ElpriserAPI.Prisklass.SE3);
+        ElpriserAPI.Prisuppdatering revised = subscriber.received.poll(5, TimeUnit.SECONDS);
+        assertThat(revised).isNotNull();
+        assertThat(revised.priser().get(0).sekPerKWh()).isEqualTo(0.35);
+
+        api.closePublishers();
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.received).isEmpty();
+    }
+
+    @Test
+    void otherZonesSubscribers_areNotNotified() throws Exception {
+        ElpriserAPI api = new ElpriserAPI(false);
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        api.getPublisher(ElpriserAPI.Prisklass.SE1).subscribe(subscriber);
+        assertThat(subscriber.subscribed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ElpriserAPI.setMockResponseForDate(DATUM, JSON);
+        api.getPriser(DATUM, ElpriserAPI.Prisklass.SE4);
+
+        api.closePublishers();
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.received).isEmpty();
+    }
+
+    @Test
+    void lateSubscriber_doesNotReceiveAnUnchangedSeries() throws Exception {
+        ElpriserAPI api = new ElpriserAPI(false);
+        ElpriserAPI.setMockResponseForDate(DATUM, JSON);
+        api.getPriser(DATUM, ElpriserAPI.Prisklass.SE3);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        api.getPublisher(ElpriserAPI.Prisklass.SE3).subscribe(subscriber);
+        assertThat(subscriber.subscribed.await(5, TimeUnit.SECONDS)).isTrue();
+        api.refresh(DATUM, ElpriserAPI.Prisklass.SE3);
+
+        api.closePublishers();
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.received).isEmpty();
+    }
+
+    @Test
+    void lastPublished_forgetsDaysBeyondTheRefreshHorizon() {
+        ElpriserAPI api = new ElpriserAPI(false);
+        ElpriserAPI.setMockResponseFunction((date, zone) -> JSON);
+
+        for (int day = 0; day < 30; day++) {
+            api.getPriser(DATUM.plusDays(day), ElpriserAPI.Prisklass.SE3);
+        }
+        // Going back in time does not bring forgotten days back either
+        api.getPriser(DATUM, ElpriserAPI.Prisklass.SE3);
+
+        assertThat(api.publishedCount()).isEqualTo(3);
+        api.closePublishers();
+    }
+
+    private static final class CollectingSubscriber implements Flow.Subscriber<ElpriserAPI.Prisuppdatering> {
+        final BlockingQueue<ElpriserAPI.Prisuppdatering> received = new LinkedBlockingQueue<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(ElpriserAPI.Prisuppdatering item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.api.TestPrices.hours;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceAlertsTest {
+
+    private static final LocalDate DATUM = LocalDate.of(2025, 9, 4);
+    private static final ElpriserAPI.Prisklass SE3 = ElpriserAPI.Prisklass.SE3;
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void evaluate_matchesThresholdCheapestAndWindowRules() {
+        PriceAlerts alerts = new PriceAlerts(alert -> { });
+        PriceAlerts.Rule below = new PriceAlerts.Below("anna", SE3, 0.25);
+        PriceAlerts.Rule above = new PriceAlerts.Above("bo", SE3, 0.90);
+        PriceAlerts.Rule cheapest = new PriceAlerts.CheapestHours("cia", SE3, 2);
+        PriceAlerts.Rule window = new PriceAlerts.Window("dan", SE3, 2, 0.30);
+        PriceAlerts.Rule strictWindow = new PriceAlerts.Window("eva", SE3, 2, 0.10);
+        PriceAlerts.Rule otherZone = new PriceAlerts.Below("fia", ElpriserAPI.Prisklass.SE1, 10.0);
+        for (PriceAlerts.Rule rule : List.of(below, above, cheapest, window, strictWindow, otherZone)) {
+            alerts.add(rule);
+        }
+
+        List<ElpriserAPI.Elpris> day = hours(0.50, 0.20, 0.30, 0.95, 0.10, 0.60);
+        List<PriceAlerts.Alert> fired = alerts.evaluate(DATUM, SE3, day);
+
+        assertThat(fired).extracting(PriceAlerts.Alert::rule).containsExactlyInAnyOrder(below, above, cheapest, window);
+        assertThat(alert(fired, below).priser()).containsExactly(day.get(1), day.get(4));
+        assertThat(alert(fired, above).priser()).containsExactly(day.get(3));
+        assertThat(alert(fired, cheapest).priser()).containsExactly(day.get(1), day.get(4));
+        // 01:00-03:00 averages 0.25, the cheapest two consecutive hours
+        assertThat(alert(fired, window).priser()).containsExactly(day.get(1), day.get(2));
+
+        assertThat(alerts.remove(below)).isTrue();
+        assertThat(alerts.remove(below)).isFalse();
+        assertThat(alerts.size()).isEqualTo(5);
+        assertThat(alerts.evaluate(DATUM, SE3, day)).extracting(PriceAlerts.Alert::rule).doesNotContain(below);
+    }
+
+    @Test
+    void attach_evaluatesDaysAsTheyArePublished() throws InterruptedException {
+        BlockingQueue<PriceAlerts.Alert> received = new LinkedBlockingQueue<>();
+        PriceAlerts alerts = new PriceAlerts(received::add);
+        alerts.add(new PriceAlerts.Below("anna", SE3, 0.40));
+        ElpriserAPI api = new ElpriserAPI(true);
+        alerts.attach(api);
+        ElpriserAPI.setMockResponseForDate(DATUM, """
+                [{"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""");
+
+        // The publisher only delivers once the subscriptions are registered
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        PriceAlerts.Alert alert = null;
+        while (alert == null && System.nanoTime() < deadline) {
+            api.refresh(DATUM, SE3);
+            alert = received.poll(100, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(alert).isNotNull();
+        assertThat(alert.datum()).isEqualTo(DATUM);
+        assertThat(alert.priser()).extracting(ElpriserAPI.Elpris::sekPerKWh).containsExactly(0.30);
+        api.closePublishers();
+    }
+
+    @Test
+    void attach_keepsDeliveringAfterAListenerThrows() throws InterruptedException {
+        BlockingQueue<PriceAlerts.Alert> received = new LinkedBlockingQueue<>();
+        AtomicInteger calls = new AtomicInteger();
+        PriceAlerts alerts = new PriceAlerts(alert -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("lyssnaren är trasig");
+            }
+            received.add(alert);
+        });
+        alerts.add(new PriceAlerts.Below("anna", SE3, 0.40));
+        ElpriserAPI api = new ElpriserAPI(true);
+        alerts.attach(api);
+
+        // Each refresh publishes a changed day, so every round is a new update
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        PriceAlerts.Alert alert = null;
+        for (int round = 0; alert == null && System.nanoTime() < deadline; round++) {
+            ElpriserAPI.setMockResponseForDate(DATUM, oneHour(0.10 + round * 0.001));
+            api.refresh(DATUM, SE3);
+            alert = received.poll(100, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(calls.get()).isGreaterThanOrEqualTo(2);
+        assertThat(alert).isNotNull();
+        api.closePublishers();
+    }
+
+    @Test
+    void add_ignoresARuleEqualToOneAlreadyAdded() {
+        PriceAlerts alerts = new PriceAlerts(alert -> { });
+        PriceAlerts.Rule below = new PriceAlerts.Below("anna", SE3, 0.25);
+
+        assertThat(alerts.add(below)).isTrue();
+        assertThat(alerts.add(new PriceAlerts.Below("anna", SE3, 0.25))).isFalse();
+
+        List<PriceAlerts.Alert> fired = alerts.evaluate(DATUM, SE3, hours(0.20, 0.50));
+        assertThat(alerts.size()).isEqualTo(1);
+        assertThat(fired).hasSize(1);
+        assertThat(fired.get(0).priser()).hasSize(1);
+    }
+
+    private static String oneHour(double sekPerKWh) {
+        return "[{\"SEK_per_kWh\":" + sekPerKWh + ",\"EUR_per_kWh\":0.01,\"EXR\":10.0,"
+                + "\"time_start\":\"2025-09-04T00:00:00+02:00\",\"time_end\":\"2025-09-04T01:00:00+02:00\"}]";
+    }
+
+    private static PriceAlerts.Alert alert(List<PriceAlerts.Alert> alerts, PriceAlerts.Rule rule) {
+        return alerts.stream().filter(a -> a.rule().equals(rule)).findFirst().orElseThrow();
+    }
+}
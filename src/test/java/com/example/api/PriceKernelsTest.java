@@ -0,0 +1,125 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PriceKernelsTest {
+
+    private final PriceKernels scalar = PriceKernels.scalar();
+    // The SIMD kernels with -Pvector and the module added, otherwise the scalar ones again
+    private final PriceKernels best = PriceKernels.best();
+
+    @Test
+    void scalarKernels_computeExpectedValues() {
+        double[] values = {0.30, -0.10, 0.80, -0.10, 0.80, Double.NaN};
+
+        assertThat(scalar.minIndex(values, 0, values.length)).isEqualTo(1);
+        assertThat(scalar.maxIndex(values, 0, values.length)).isEqualTo(2);
+        assertThat(scalar.minIndex(values, 2, 3)).isEqualTo(2);
+        assertThat(scalar.minIndex(values, 3, 3)).isEqualTo(-1);
+        assertThat(scalar.minIndex(values, 5, 6)).isEqualTo(5);
+        assertThat(scalar.sum(values, 0, 5)).isCloseTo(1.70, within(1e-12));
+        assertThat(scalar.dot(values, values, 0, 2)).isCloseTo(0.10, within(1e-12));
+    }
+
+    @Test
+    void bestKernels_matchScalarIndicesExactly() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < 500; round++) {
+            int length = random.nextInt(200);
+            double[] values = new double[length];
+            for (int i = 0; i < length; i++) {
+                // Few distinct values so ties are common, plus NaN and both zeros
+                values[i] = switch (random.nextInt(12)) {
+                    case 0 -> Double.NaN;
+                    case 1 -> -0.0;
+                    case 2 -> 0.0;
+                    default -> random.nextInt(8) / 10.0 - 0.2;
+                };
+            }
+            int from = length == 0 ? 0 : random.nextInt(length);
+
+            assertThat(best.minIndex(values, from, length)).isEqualTo(scalar.minIndex(values, from, length));
+            assertThat(best.maxIndex(values, from, length)).isEqualTo(scalar.maxIndex(values, from, length));
+        }
+    }
+
+    @Test
+    void minMaxIndex_onlyInfinitiesStillGiveAnIndexInRange() {
+        for (int length : new int[] {1, 3, 17, 64}) {
+            double[] plus = new double[length];
+            double[] minus = new double[length];
+            Arrays.fill(plus, Double.POSITIVE_INFINITY);
+            Arrays.fill(minus, Double.NEGATIVE_INFINITY);
+            plus[0] = Double.NaN;
+
+            for (PriceKernels kernels : new PriceKernels[] {scalar, best}) {
+                assertThat(kernels.minIndex(plus, 0, length)).isEqualTo(length == 1 ? 0 : 1);
+                assertThat(kernels.maxIndex(minus, 0, length)).isEqualTo(0);
+                assertThat(kernels.minIndex(minus, 0, length)).isEqualTo(0);
+            }
+        }
+    }
+
+    @Test
+    void bestKernels_sumAndDotStayWithinTheDocumentedBound() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int round = 0; round < 200; round++) {
+            int length = random.nextInt(1, 3000);
+            double[] a = new double[length];
+            double[] b = new double[length];
+            double absDot = 0;
+            double absSum = 0;
+            for (int i = 0; i < length; i++) {
+                a[i] = random.nextDouble(-0.5, 3.0);
+                b[i] = random.nextDouble(0, 2.0);
+                absDot += Math.abs(a[i] * b[i]);
+                absSum += Math.abs(a[i]);
+            }
+            double eps = length * Math.ulp(1.0);
+
+            assertThat(best.dot(a, b, 0, length)).isCloseTo(scalar.dot(a, b, 0, length), within(eps * absDot));
+            assertThat(best.sum(a, 0, length)).isCloseTo(scalar.sum(a, 0, length), within(eps * absSum));
+        }
+    }
+
+    @Test
+    void bestKernels_convertCurrencyBitForBit() {
+        SplittableRandom random = new SplittableRandom(7);
+        int length = 1003;
+        double[] sek = new double[length];
+        double[] exr = new double[length];
+        for (int i = 0; i < length; i++) {
+            sek[i] = random.nextDouble(-0.5, 3.0);
+            exr[i] = random.nextDouble(10.5, 11.8);
+        }
+        double[] expected = new double[length];
+        double[] actual = new double[length];
+
+        scalar.sekToEur(sek, exr, expected, 0, length);
+        best.sekToEur(sek, exr, actual, 0, length);
+        assertThat(actual).containsExactly(expected);
+
+        scalar.eurToSek(expected, exr, expected, 0, length);
+        best.eurToSek(actual, exr, actual, 0, length);
+        assertThat(actual).containsExactly(expected);
+
+        // A range that starts mid-array leaves everything outside it alone
+        double[] full = new double[length];
+        double[] partial = new double[length];
+        scalar.sekToEur(sek, exr, full, 0, length);
+        best.sekToEur(sek, exr, partial, 5, length - 3);
+        assertThat(partial[4]).isZero();
+        assertThat(partial[length - 3]).isZero();
+        assertThat(Arrays.copyOfRange(partial, 5, length - 3))
+                .containsExactly(Arrays.copyOfRange(full, 5, length - 3));
+
+        assertThat(best.sum(sek, 0, length)).isCloseTo(scalar.sum(sek, 0, length), within(1e-9));
+        assertThat(best.dot(sek, exr, 0, length)).isCloseTo(scalar.dot(sek, exr, 0, length), within(1e-9));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.api.TestPrices.hours;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceRankingTest {
+
+    private final List<ElpriserAPI.Elpris> priser = hours(0.30, 0.10, 0.20, 0.10, 0.30, 0.05);
+
+    @Test
+    void mostExpensive_returnsTopNWithEarliestFirstOnTies() {
+        List<ElpriserAPI.Elpris> top = PriceRanking.mostExpensive(priser, 3);
+
+        assertThat(top).containsExactly(priser.get(0), priser.get(4), priser.get(2));
+    }
+
+    @Test
+    void cheapest_returnsBottomNWithEarliestFirstOnTies() {
+        List<ElpriserAPI.Elpris> bottom = PriceRanking.cheapest(priser, 3);
+
+        assertThat(bottom).containsExactly(priser.get(5), priser.get(1), priser.get(3));
+    }
+
+    @Test
+    void limitLargerThanList_sortsEverything() {
+        List<ElpriserAPI.Elpris> all = PriceRanking.mostExpensive(priser, 100);
+
+        assertThat(all).containsExactly(priser.get(0), priser.get(4), priser.get(2),
+                priser.get(1), priser.get(3), priser.get(5));
+    }
+
+    @Test
+    void zeroLimit_returnsEmptyList() {
+        assertThat(PriceRanking.cheapest(priser, 0)).isEmpty();
+    }
+}
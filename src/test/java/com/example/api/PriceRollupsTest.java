@@ -0,0 +1,89 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PriceRollupsTest {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+    private static final ElpriserAPI.Prisklass SE3 = ElpriserAPI.Prisklass.SE3;
+
+    @Test
+    void query_loadsMissingDaysOnceAndThenAnswersFromMonthRollups() {
+        AtomicInteger loads = new AtomicInteger();
+        PriceRollups rollups = new PriceRollups((date, zone) -> {
+            loads.incrementAndGet();
+            return day(date, date.getDayOfMonth() / 100.0);
+        });
+
+        PriceStats first = rollups.query(SE3, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31));
+        int loadsAfterFirst = loads.get();
+        PriceStats second = rollups.query(SE3, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31));
+
+        assertThat(loadsAfterFirst).isEqualTo(90);
+        assertThat(loads.get()).isEqualTo(90);
+        assertThat(second.count()).isEqualTo(90 * 24);
+        assertThat(second.mean()).isCloseTo(first.mean(), within(1e-12));
+        assertThat(second.max()).isEqualTo(0.31);
+        // The earliest 31st wins the tie
+        assertThat(second.mostExpensive().timeStart().toLocalDate()).isEqualTo(LocalDate.of(2025, 1, 31));
+
+        PriceStats february = rollups.get(SE3, PriceRollups.Resolution.MONTH, LocalDate.of(2025, 2, 1));
+        assertThat(february.count()).isEqualTo(28 * 24);
+        assertThat(february.mean()).isCloseTo(14.5 / 100, within(1e-12));
+        List<PriceStats> months = rollups.monthly(SE3, YearMonth.of(2025, 1), YearMonth.of(2025, 3));
+        assertThat(months).extracting(PriceStats::count).containsExactly(31L * 24, 28L * 24, 31L * 24);
+    }
+
+    @Test
+    void record_outOfOrderAndRevisedDaysRebuildWeekAndMonth() {
+        PriceRollups rollups = new PriceRollups((date, zone) -> List.of());
+        LocalDate monday = LocalDate.of(2025, 9, 1);
+
+        rollups.record(monday.plusDays(1), SE3, day(monday.plusDays(1), 0.50));
+        rollups.record(monday, SE3, day(monday, 0.50));
+        PriceStats week = rollups.get(SE3, PriceRollups.Resolution.WEEK, monday);
+        assertThat(week.count()).isEqualTo(48);
+        assertThat(week.maxIndex()).isZero();
+
+        rollups.record(monday.plusDays(1), SE3, day(monday.plusDays(1), 0.80));
+        PriceStats month = rollups.get(SE3, PriceRollups.Resolution.MONTH, monday);
+        assertThat(month.count()).isEqualTo(48);
+        assertThat(month.max()).isEqualTo(0.80);
+        assertThat(month.mean()).isCloseTo(0.65, within(1e-12));
+    }
+
+    @Test
+    void query_withTimesUsesRawPricesAtPartialEdges() {
+        PriceRollups rollups = new PriceRollups((date, zone) -> day(date, date.getDayOfMonth()));
+
+        // 22:00 on the 1st to 02:00 on the 3rd: two raw hours, one whole day, two raw hours
+        PriceStats stats = rollups.query(SE3,
+                ZonedDateTime.of(2025, 1, 1, 22, 0, 0, 0, STOCKHOLM),
+                ZonedDateTime.of(2025, 1, 3, 2, 0, 0, 0, STOCKHOLM));
+
+        assertThat(stats.count()).isEqualTo(28);
+        assertThat(stats.sum()).isCloseTo(2 * 1 + 24 * 2 + 2 * 3, within(1e-9));
+        assertThat(stats.cheapest().timeStart().getHour()).isEqualTo(22);
+    }
+
+    private static List<ElpriserAPI.Elpris> day(LocalDate date, double sekPerKWh) {
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>();
+        ZonedDateTime start = date.atStartOfDay(STOCKHOLM);
+        for (int hour = 0; hour < 24; hour++) {
+            prices.add(new ElpriserAPI.Elpris(sekPerKWh, sekPerKWh / 10, 10.0,
+                    start.plusHours(hour), start.plusHours(hour + 1)));
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceSeriesTest {
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void get_matchesFlatListAcrossDaysOfDifferentLength() {
+        // A 23-hour DST day, a quarter-hour day, an empty day and a 25-hour day
+        List<List<ElpriserAPI.Elpris>> days = List.of(slots(0, 23), slots(23, 96), List.of(), slots(119, 25));
+        List<ElpriserAPI.Elpris> flat = new ArrayList<>();
+        days.forEach(flat::addAll);
+
+        PriceSeries series = PriceSeries.of(days);
+
+        assertThat(series).hasSize(144).containsExactlyElementsOf(flat);
+        for (int i = 0; i < flat.size(); i++) {
+            assertThat(series.get(i)).isSameAs(flat.get(i));
+        }
+        assertThat(series.dayCount()).isEqualTo(3);
+        assertThat(series.dayStart(2)).isEqualTo(119);
+        assertThat(series.subList(20, 30)).containsExactlyElementsOf(flat.subList(20, 30));
+        assertThatThrownBy(() -> series.get(144)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> series.add(flat.get(0))).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void cachedDaysAreImmutableAndUnchangedByMultiDaySeries() {
+        LocalDate today = LocalDate.of(2025, 9, 4);
+        ElpriserAPI.setMockResponseForDate(today, """
+                [{"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""");
+        ElpriserAPI.setMockResponseForDate(today.plusDays(1), """
+                [{"SEK_per_kWh":0.40,"EUR_per_kWh":0.04,"EXR":10.0,"time_start":"2025-09-05T00:00:00+02:00","time_end":"2025-09-05T01:00:00+02:00"}]""");
+        ElpriserAPI api = new ElpriserAPI(true);
+
+        PriceSeries series = PriceSeries.fetch(api, ElpriserAPI.Prisklass.SE3, today, today.plusDays(1));
+        List<ElpriserAPI.Elpris> cached = api.getPriser(today, ElpriserAPI.Prisklass.SE3);
+
+        assertThat(series).extracting(ElpriserAPI.Elpris::sekPerKWh).containsExactly(0.30, 0.40);
+        assertThat(cached).hasSize(1);
+        assertThatThrownBy(() -> cached.add(series.get(1))).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static List<ElpriserAPI.Elpris> slots(int first, int count) {
+        ZonedDateTime start = ZonedDateTime.parse("2025-10-26T00:00:00+02:00");
+        List<ElpriserAPI.Elpris> result = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            result.add(new ElpriserAPI.Elpris(i / 100.0, i / 1000.0, 10.0,
+                    start.plusMinutes(15L * i), start.plusMinutes(15L * (i + 1))));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.api.TestPrices.hours;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PriceStatsTest {
+
+    @Test
+    void of_computesAllStatisticsInOnePass() {
+        List<ElpriserAPI.Elpris> priser = hours(0.30, 0.10, 0.80, 0.10, 0.80);
+
+        PriceStats stats = PriceStats.of(priser);
+
+        assertThat(stats.count()).isEqualTo(5);
+        assertThat(stats.sum()).isCloseTo(2.10, within(1e-9));
+        assertThat(stats.mean()).isCloseTo(0.42, within(1e-9));
+        assertThat(stats.variance()).isCloseTo(0.1016, within(1e-9));
+        // Earliest slot wins on ties
+        assertThat(stats.minIndex()).isEqualTo(1);
+        assertThat(stats.maxIndex()).isEqualTo(2);
+        assertThat(stats.cheapest()).isSameAs(priser.get(1));
+        assertThat(stats.mostExpensive()).isSameAs(priser.get(2));
+    }
+
+    @Test
+    void merge_matchesSinglePassOverConcatenatedDays() {
+        List<ElpriserAPI.Elpris> all = hours(0.50, 0.20, 0.90, 0.20, 0.90, 0.05, 0.40);
+        PriceStats expected = PriceStats.of(all);
+
+        PriceStats merged = PriceStats.of(all.subList(0, 3)).merge(PriceStats.of(all.subList(3, 7)));
+
+        assertThat(merged.count()).isEqualTo(expected.count());
+        assertThat(merged.mean()).isCloseTo(expected.mean(), within(1e-12));
+        assertThat(merged.variance()).isCloseTo(expected.variance(), within(1e-12));
+        assertThat(merged.minIndex()).isEqualTo(5);
+        assertThat(merged.maxIndex()).isEqualTo(2);
+        assertThat(merged.mostExpensive()).isSameAs(all.get(2));
+    }
+
+    @Test
+    void collector_givesSameResultOnParallelStream() {
+        List<ElpriserAPI.Elpris> all = new ArrayList<>();
+        for (int day = 0; day < 50; day++) {
+            all.addAll(hours(0.30, 0.10, 0.80, 0.10, 0.80));
+        }
+
+        PriceStats stats = all.parallelStream().collect(PriceStats.collector());
+
+        assertThat(stats.count()).isEqualTo(all.size());
+        assertThat(stats.minIndex()).isEqualTo(1);
+        assertThat(stats.maxIndex()).isEqualTo(2);
+    }
+
+    @Test
+    void emptyStats_haveNoMean() {
+        PriceStats stats = PriceStats.of(List.of());
+
+        assertThat(stats.isEmpty()).isTrue();
+        assertThat(stats.mean()).isNaN();
+        assertThat(stats.cheapest()).isNull();
+    }
+
+    @Test
+    void onlyInfinitePrices_stillHaveCheapestAndMostExpensive() {
+        double inf = Double.POSITIVE_INFINITY;
+        PriceStats stats = PriceStats.of(hours(inf, inf));
+        PriceStats merged = PriceStats.of(hours(Double.NaN)).merge(PriceStats.of(hours(-inf, -inf)));
+
+        assertThat(stats.minIndex()).isZero();
+        assertThat(stats.cheapest()).isNotNull();
+        assertThat(merged.minIndex()).isEqualTo(1);
+        assertThat(merged.maxIndex()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SharedPriceCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void put_thenGet_roundTripsPricesAndOffsets() throws Exception {
+        // DST day: the last period ends in winter time
+        List<ElpriserAPI.Elpris> priser = List.of(
+                new ElpriserAPI.Elpris(0.12, 0.011, 10.9,
+                        ZonedDateTime.parse("2025-10-26T01:00:00+02:00"), ZonedDateTime.parse("2025-10-26T02:00:00+02:00")),
+                new ElpriserAPI.Elpris(-0.01, -0.001, 10.9,
+                        ZonedDateTime.parse("2025-10-26T02:00:00+02:00"), ZonedDateTime.parse("2025-10-26T02:00:00+01:00")));
+        LocalDate datum = LocalDate.of(2025, 10, 26);
+
+        try (SharedPriceCache cache = SharedPriceCache.open(tempDir.resolve("priser.cache"), 16)) {
+            cache.put(datum, ElpriserAPI.Prisklass.SE3, priser);
+
+            assertThat(cache.get(datum, ElpriserAPI.Prisklass.SE3)).isEqualTo(priser);
+            assertThat(cache.get(datum, ElpriserAPI.Prisklass.SE4)).isNull();
+            assertThat(cache.get(datum.plusDays(1), ElpriserAPI.Prisklass.SE3)).isNull();
+        }
+    }
+
+    @Test
+    void reopenedFile_stillContainsEntries() throws Exception {
+        Path file = tempDir.resolve("priser.cache");
+        LocalDate datum = LocalDate.of(2025, 9, 4);
+        List<ElpriserAPI.Elpris> priser = List.of(new ElpriserAPI.Elpris(0.30, 0.03, 10.0,
+                ZonedDateTime.parse("2025-09-04T00:00:00+02:00"), ZonedDateTime.parse("2025-09-04T01:00:00+02:00")));
+
+        try (SharedPriceCache cache = SharedPriceCache.open(file)) {
+            cache.put(datum, ElpriserAPI.Prisklass.SE1, priser);
+        }
+        try (SharedPriceCache cache = SharedPriceCache.open(file)) {
+            assertThat(cache.get(datum, ElpriserAPI.Prisklass.SE1)).isEqualTo(priser);
+        }
+    }
+
+    @Test
+    void open_refusesToOverwriteAForeignFile() throws Exception {
+        Path file = tempDir.resolve("anteckningar.txt");
+        Files.writeString(file, "inte en cache");
+
+        assertThatThrownBy(() -> SharedPriceCache.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("inte en pris-cache");
+        assertThat(Files.readString(file, StandardCharsets.UTF_8)).isEqualTo("inte en cache");
+    }
+
+    @Test
+    void close_keepsTheFileOpenForOtherHolders() throws Exception {
+        Path file = tempDir.resolve("priser.cache");
+        LocalDate datum = LocalDate.of(2025, 9, 4);
+
+        SharedPriceCache first = SharedPriceCache.open(file, 16);
+        SharedPriceCache second = SharedPriceCache.open(file, 16);
+        first.close();
+
+        second.put(datum, ElpriserAPI.Prisklass.SE2, day(datum, 0.42));
+        assertThat(second.get(datum, ElpriserAPI.Prisklass.SE2)).isEqualTo(day(datum, 0.42));
+        second.close();
+    }
+
+    @Test
+    void tornSlotInACollisionChain_keepsLaterKeysReachable() throws Exception {
+        Path file = tempDir.resolve("priser.cache");
+        ElpriserAPI.Prisklass zone = ElpriserAPI.Prisklass.SE3;
+        List<LocalDate> chain = new ArrayList<>();
+
+        try (SharedPriceCache cache = SharedPriceCache.open(file, 64)) {
+            // Three days with the same home slot end up in three consecutive slots
+            LocalDate first = LocalDate.of(2025, 1, 1);
+            int home = cache.homeSlot(first, zone);
+            for (LocalDate d = first; chain.size() < 3; d = d.plusDays(1)) {
+                if (cache.homeSlot(d, zone) == home) {
+                    chain.add(d);
+                    cache.put(d, zone, day(d, 0.10));
+                }
+            }
+            cache.simulateTornWrite(chain.get(1), zone);
+        }
+
+        try (SharedPriceCache cache = SharedPriceCache.open(file)) {
+            assertThat(cache.get(chain.get(0), zone)).isEqualTo(day(chain.get(0), 0.10));
+            assertThat(cache.get(chain.get(1), zone)).isNull();
+            assertThat(cache.get(chain.get(2), zone)).isEqualTo(day(chain.get(2), 0.10));
+
+            // Updating the key behind the torn slot must not create a second copy of it
+            cache.put(chain.get(2), zone, day(chain.get(2), 0.20));
+            assertThat(cache.get(chain.get(2), zone)).isEqualTo(day(chain.get(2), 0.20));
+            assertThat(cache.occupiedSlots()).isEqualTo(2);
+
+            cache.put(chain.get(1), zone, day(chain.get(1), 0.30));
+            assertThat(cache.get(chain.get(1), zone)).isEqualTo(day(chain.get(1), 0.30));
+            assertThat(cache.occupiedSlots()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void fullTable_evictsTheOldestDay() throws Exception {
+        ElpriserAPI.Prisklass zone = ElpriserAPI.Prisklass.SE1;
+        LocalDate first = LocalDate.of(2025, 9, 1);
+
+        try (SharedPriceCache cache = SharedPriceCache.open(tempDir.resolve("priser.cache"), 4)) {
+            for (int i = 0; i < 5; i++) {
+                cache.put(first.plusDays(i), zone, day(first.plusDays(i), 0.10 * i));
+                Thread.sleep(5); // Distinct write times, so "oldest" is well defined
+            }
+
+            assertThat(cache.occupiedSlots()).isEqualTo(4);
+            assertThat(cache.get(first, zone)).isNull();
+            for (int i = 1; i < 5; i++) {
+                assertThat(cache.get(first.plusDays(i), zone)).isEqualTo(day(first.plusDays(i), 0.10 * i));
+            }
+        }
+    }
+
+    @Test
+    void twoProcessesWritingTheSameFile_keepOneSlotPerKey() throws Exception {
+        Path file = tempDir.resolve("priser.cache");
+        ElpriserAPI.Prisklass zone = ElpriserAPI.Prisklass.SE4;
+        LocalDate first = LocalDate.of(2025, 1, 1);
+
+        try (SharedPriceCache cache = SharedPriceCache.open(file, 256)) {
+            // The other process writes days 0-59 while this one writes days 30-89
+            Process writer = new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", classPath(SharedPriceCache.class, Writer.class),
+                    Writer.class.getName(), file.toString(), first.toString(), "0", "60")
+                    .redirectErrorStream(true)
+                    .start();
+            for (int i = 30; i < 90; i++) {
+                cache.put(first.plusDays(i), zone, day(first.plusDays(i), 1.0));
+            }
+            assertThat(writer.waitFor(60, TimeUnit.SECONDS)).isTrue();
+            assertThat(writer.exitValue())
+                    .as(new String(writer.getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                    .isZero();
+
+            assertThat(cache.occupiedSlots()).isEqualTo(90);
+            for (int i = 0; i < 90; i++) {
+                LocalDate d = first.plusDays(i);
+                assertThat(cache.get(d, zone)).isIn(day(d, 1.0), day(d, 2.0));
+            }
+        }
+    }
+
+    /** Second writer process for {@link #twoProcessesWritingTheSameFile_keepOneSlotPerKey()}. */
+    static final class Writer {
+        public static void main(String[] args) throws IOException {
+            LocalDate first = LocalDate.parse(args[1]);
+            try (SharedPriceCache cache = SharedPriceCache.open(Path.of(args[0]))) {
+                for (int i = Integer.parseInt(args[2]); i < Integer.parseInt(args[3]); i++) {
+                    cache.put(first.plusDays(i), ElpriserAPI.Prisklass.SE4, day(first.plusDays(i), 2.0));
+                }
+            }
+        }
+    }
+
+    /** The launcher's own class path may be just a runner jar, so use where the classes were loaded from. */
+    private static String classPath(Class<?>... classes) throws Exception {
+        List<String> entries = new ArrayList<>();
+        for (Class<?> type : classes) {
+            entries.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static List<ElpriserAPI.Elpris> day(LocalDate datum, double sekPerKWh) {
+        ZonedDateTime midnight = ZonedDateTime.parse(datum + "T00:00:00+01:00");
+        return List.of(new ElpriserAPI.Elpris(sekPerKWh, sekPerKWh / 10, 10.0, midnight, midnight.plusHours(1)));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.api;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Shared price fixtures for the tests in this package. */
+final class TestPrices {
+
+    static final ZonedDateTime MIDNIGHT = ZonedDateTime.parse("2025-09-04T00:00:00+02:00");
+
+    private TestPrices() {
+    }
+
+    /** One hourly price per value from {@link #MIDNIGHT}, in a list the caller may modify. */
+    static List<ElpriserAPI.Elpris> hours(double... sekPerKWh) {
+        List<ElpriserAPI.Elpris> result = new ArrayList<>();
+        for (int i = 0; i < sekPerKWh.length; i++) {
+            result.add(new ElpriserAPI.Elpris(sekPerKWh[i], sekPerKWh[i] / 10, 10.0,
+                    MIDNIGHT.plusHours(i), MIDNIGHT.plusHours(i + 1)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimestampsTest {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+    @Test
+    void parse_matchesZonedDateTimeParse() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 10_000; i++) {
+            long epochSecond = random.nextLong(-2_000_000_000L, 4_000_000_000L);
+            int offsetSeconds = random.nextInt(-12 * 4, 14 * 4 + 1) * 900;
+            String text = Timestamps.toZonedDateTime(epochSecond, offsetSeconds)
+                    .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+
+            assertThat(Timestamps.parse(text)).isEqualTo(ZonedDateTime.parse(text));
+            assertThat(Timestamps.epochSecond(text)).isEqualTo(epochSecond);
+            assertThat(Timestamps.offsetSeconds(text)).isEqualTo(offsetSeconds);
+        }
+        // Other layouts fall back to the standard parser
+        assertThat(Timestamps.epochSecond("2025-09-04T00:00:00Z")).isEqualTo(1_756_944_000L);
+    }
+
+    @Test
+    void parse_rejectsInvalidFields() {
+        assertThatThrownBy(() -> Timestamps.parse("2025-02-29T00:00:00+01:00")).isInstanceOf(DateTimeParseException.class);
+        assertThatThrownBy(() -> Timestamps.epochSecond("2025-09-04T24:00:00+02:00")).isInstanceOf(DateTimeParseException.class);
+        assertThatThrownBy(() -> Timestamps.epochSecond("2025-09-O4T00:00:00+02:00")).isInstanceOf(DateTimeParseException.class);
+    }
+
+    @Test
+    void parse_givesLocalHourAndDayOnDstDays() {
+        // 2025-03-30 has 23 hours (92 quarters), 2025-10-26 has 25 hours (100 quarters)
+        for (LocalDate date : new LocalDate[] {LocalDate.of(2025, 3, 30), LocalDate.of(2025, 10, 26)}) {
+            ZonedDateTime midnight = date.atStartOfDay(STOCKHOLM);
+            ZonedDateTime end = date.plusDays(1).atStartOfDay(STOCKHOLM);
+
+            int quarters = 0;
+            for (ZonedDateTime t = midnight; t.isBefore(end); t = t.plusMinutes(15), quarters++) {
+                String text = t.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+                ZonedDateTime parsed = Timestamps.parse(text);
+
+                assertThat(parsed.getHour()).isEqualTo(t.getHour());
+                assertThat(parsed.toLocalDate()).isEqualTo(date);
+                assertThat(Timestamps.epochSecond(text) - midnight.toEpochSecond()).isEqualTo(quarters * 900L);
+            }
+            assertThat(quarters).isEqualTo(date.getMonthValue() == 3 ? 92 : 100);
+        }
+    }
+}
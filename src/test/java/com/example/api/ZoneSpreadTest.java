@@ -0,0 +1,94 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.api.TestPrices.MIDNIGHT;
+import static com.example.api.TestPrices.hours;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ZoneSpreadTest {
+
+    @Test
+    void align_skipsSlotsMissingInAnyZone() {
+        List<ElpriserAPI.Elpris> se1 = hours(0.10, 0.20, 0.30);
+        List<ElpriserAPI.Elpris> se2 = hours(0.10, 0.20, 0.30);
+        List<ElpriserAPI.Elpris> se3 = new ArrayList<>(hours(0.10, 0.20, 0.30));
+        se3.remove(1); // SE3 is missing 01:00
+        List<ElpriserAPI.Elpris> se4 = hours(0.10, 0.20, 0.30);
+
+        ZoneSpread spread = ZoneSpread.align(List.of(se1, se2, se3, se4));
+
+        assertThat(spread.size()).isEqualTo(2);
+        assertThat(spread.timeStart(0).getHour()).isEqualTo(0);
+        assertThat(spread.timeStart(1).getHour()).isEqualTo(2);
+    }
+
+    @Test
+    void analyze_findsSpreadAndCrossZoneArbitrage() {
+        ZoneSpread spread = ZoneSpread.align(List.of(
+                hours(0.10, 0.05, 0.40, 0.40),
+                hours(0.20, 0.30, 0.40, 0.40),
+                hours(0.20, 0.30, 0.40, 0.40),
+                hours(0.30, 0.30, 0.40, 1.05)));
+
+        ZoneSpread.Analysis analysis = spread.analyze(1);
+
+        assertThat(analysis.spread()[0]).isCloseTo(0.20, within(1e-9));
+        assertThat(analysis.cheapestZone()[1]).isEqualTo(ElpriserAPI.Prisklass.SE1.ordinal());
+        assertThat(analysis.dearestZone()[3]).isEqualTo(ElpriserAPI.Prisklass.SE4.ordinal());
+
+        // Best overall: charge in SE1 at 01:00, discharge in SE4 at 03:00
+        ZoneSpread.Arbitrage best = analysis.arbitrage().get(0);
+        assertThat(best.chargeZone()).isEqualTo(ElpriserAPI.Prisklass.SE1);
+        assertThat(best.dischargeZone()).isEqualTo(ElpriserAPI.Prisklass.SE4);
+        assertThat(best.chargeStart().getHour()).isEqualTo(1);
+        assertThat(best.dischargeStart().getHour()).isEqualTo(3);
+        assertThat(best.gainSekPerKWh()).isCloseTo(1.00, within(1e-9));
+
+        assertThat(analysis.correlation()[1][2]).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void analyze_neverUsesAWindowAcrossAGap() {
+        List<List<ElpriserAPI.Elpris>> perZone = new ArrayList<>(List.of(
+                hours(1, 0, 1, 0, 1, 1),
+                hours(1, 1, 1, 1, 1, 1),
+                hours(1, 1, 1, 1, 1, 1),
+                hours(1, 1, 1, 1, 3, 3)));
+        for (List<ElpriserAPI.Elpris> zone : perZone) {
+            zone.remove(2); // 02:00 is missing everywhere, so 01:00 and 03:00 are not adjacent
+        }
+
+        ZoneSpread spread = ZoneSpread.align(perZone);
+        ZoneSpread.Analysis analysis = spread.analyze(2);
+
+        assertThat(spread.isContiguous(1, 2)).isFalse();
+        ZoneSpread.Arbitrage best = analysis.arbitrage().get(0);
+        assertThat(best.chargeZone()).isEqualTo(ElpriserAPI.Prisklass.SE1);
+        assertThat(best.dischargeZone()).isEqualTo(ElpriserAPI.Prisklass.SE4);
+        assertThat(best.chargeStart().getHour()).isEqualTo(0);
+        assertThat(best.gainSekPerKWh()).isCloseTo(5.0, within(1e-9));
+        assertThat(analysis.arbitrage()).noneMatch(a -> a.chargeStart().getHour() == 1 || a.dischargeStart().getHour() == 1);
+    }
+
+    @Test
+    void align_splitsHourlyPricesWhenAnotherZoneHasQuarters() {
+        List<ElpriserAPI.Elpris> quarters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            quarters.add(new ElpriserAPI.Elpris(0.1 * i, 0.01 * i, 10.0, MIDNIGHT.plusMinutes(15L * i), MIDNIGHT.plusMinutes(15L * (i + 1))));
+        }
+
+        ZoneSpread spread = ZoneSpread.align(List.of(quarters, hours(0.50), hours(0.60), hours(0.70)));
+
+        assertThat(spread.size()).isEqualTo(4);
+        assertThat(spread.slotSeconds()).isEqualTo(900);
+        assertThat(spread.timeStart(3).getMinute()).isEqualTo(45);
+        assertThat(spread.timeEnd(3).getHour()).isEqualTo(1);
+        assertThat(spread.sekPerKWh(ElpriserAPI.Prisklass.SE1, 3)).isCloseTo(0.3, within(1e-9));
+        assertThat(spread.sekPerKWh(ElpriserAPI.Prisklass.SE4, 3)).isEqualTo(0.70);
+    }
+}
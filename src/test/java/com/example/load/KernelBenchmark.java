@@ -0,0 +1,79 @@
+package com.example.load;
+
+import com.example.api.PriceKernels;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compares the scalar and the SIMD {@link PriceKernels} on long price histories.
+ * <p>
+ * Build with {@code mvn -Pvector test-compile} and run with
+ * {@code java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes com.example.load.KernelBenchmark [slots]}.
+ * Without the profile or the module both columns measure the scalar kernels.
+ */
+public final class KernelBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    private KernelBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        // Default: ten years of 15-minute periods
+        int slots = args.length > 0 ? Integer.parseInt(args[0]) : 10 * 365 * 96;
+        SplittableRandom random = new SplittableRandom(1);
+        double[] sek = new double[slots];
+        double[] exr = new double[slots];
+        double[] kwh = new double[slots];
+        double[] out = new double[slots];
+        for (int i = 0; i < slots; i++) {
+            sek[i] = random.nextDouble(-0.2, 3.0);
+            exr[i] = random.nextDouble(10.5, 11.8);
+            kwh[i] = random.nextDouble(0, 2.5);
+        }
+
+        PriceKernels scalar = PriceKernels.scalar();
+        PriceKernels best = PriceKernels.best();
+        System.out.printf("%d slots, best = %s%n", slots, best.getClass().getSimpleName());
+        System.out.printf("%-10s %12s %12s %8s%n", "kernel", "scalar ms", "best ms", "speedup");
+
+        compare("sum", scalar, best, k -> k.sum(sek, 0, slots));
+        compare("minIndex", scalar, best, k -> k.minIndex(sek, 0, slots));
+        compare("maxIndex", scalar, best, k -> k.maxIndex(sek, 0, slots));
+        compare("sekToEur", scalar, best, k -> {
+            k.sekToEur(sek, exr, out, 0, slots);
+            return out[slots - 1];
+        });
+        compare("dot", scalar, best, k -> k.dot(kwh, sek, 0, slots));
+    }
+
+    private static void compare(String name, PriceKernels scalar, PriceKernels best,
+                                ToDoubleFunction<PriceKernels> kernel) {
+        double scalarMillis = measure(scalar, kernel);
+        double bestMillis = measure(best, kernel);
+        System.out.printf(Locale.ROOT, "%-10s %12.3f %12.3f %7.2fx%n",
+                name, scalarMillis, bestMillis, scalarMillis / bestMillis);
+    }
+
+    /** Median time of one call in milliseconds. */
+    private static double measure(PriceKernels kernels, ToDoubleFunction<PriceKernels> kernel) {
+        double sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += kernel.applyAsDouble(kernels);
+        }
+        long[] times = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += kernel.applyAsDouble(kernels);
+            times[i] = System.nanoTime() - start;
+        }
+        if (sink == 42.4242) {
+            System.out.print(""); // keep the results alive
+        }
+        java.util.Arrays.sort(times);
+        return times[MEASURED_ROUNDS / 2] / 1e6;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.load;
+
+import com.example.api.ElpriserAPI;
+import com.example.api.PriceRanking;
+import com.example.api.PriceSeries;
+import com.example.api.PriceStats;
+import com.example.api.ZoneSpread;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency soak and load test for {@link ElpriserAPI} and the analytics built on it.
+ * <p>
+ * Prices come from {@link SyntheticPrices} through the API's mock hook, so no network is used.
+ * Worker threads run a weighted mix of cached reads, uncached re-fetches (parsing), multi-day
+ * statistics, top-N ranking and cross-zone spread analysis over random dates in the range.
+ * At the end it reports throughput, p50/p99/p99.9 latency per operation, allocation rate of
+ * the workers and GC pauses.
+ * <p>
+ * Run from the test classpath, e.g.
+ * {@code java -cp target/classes:target/test-classes com.example.load.SoakHarness --threads 64 --seconds 60}.
+ * Options: {@code --threads N}, {@code --seconds N}, {@code --warmup N}, {@code --from YYYY-MM-DD},
+ * {@code --to YYYY-MM-DD}, {@code --quarter-hour-from YYYY-MM-DD}.
+ */
+public final class SoakHarness {
+
+    private static final ElpriserAPI.Prisklass[] ZONES = ElpriserAPI.Prisklass.values();
+
+    enum Operation {
+        CACHED_READ(50), REFRESH(15), MONTH_STATS(15), WEEK_TOP_N(10), ZONE_SPREAD(10);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    public record Config(int threads, Duration duration, Duration warmup,
+                         LocalDate from, LocalDate to, LocalDate quarterHourFrom) {
+
+        static Config parse(String[] args) {
+            int threads = 64;
+            long seconds = 30;
+            long warmup = 5;
+            LocalDate to = LocalDate.of(2025, 12, 31);
+            LocalDate from = to.minusYears(5).plusDays(1);
+            LocalDate quarterHourFrom = LocalDate.of(2025, 10, 1);
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                    case "--seconds" -> seconds = Long.parseLong(args[i + 1]);
+                    case "--warmup" -> warmup = Long.parseLong(args[i + 1]);
+                    case "--from" -> from = LocalDate.parse(args[i + 1]);
+                    case "--to" -> to = LocalDate.parse(args[i + 1]);
+                    case "--quarter-hour-from" -> quarterHourFrom = LocalDate.parse(args[i + 1]);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            return new Config(threads, Duration.ofSeconds(seconds), Duration.ofSeconds(warmup), from, to, quarterHourFrom);
+        }
+    }
+
+    public record OperationResult(Operation operation, long count, long p50Nanos, long p99Nanos,
+                                  long p999Nanos, long maxNanos) {}
+
+    public record Report(Duration elapsed, long operations, double operationsPerSecond,
+                         List<OperationResult> perOperation, double allocatedBytesPerSecond,
+                         long gcCount, long gcTimeMillis, long maxGcPauseMillis) {
+
+        void print(PrintStream out) {
+            out.printf(Locale.ROOT, "elapsed %.1f s, %d ops, %.0f ops/s%n",
+                    elapsed.toMillis() / 1000.0, operations, operationsPerSecond);
+            out.printf(Locale.ROOT, "%-12s %10s %10s %10s %10s %10s%n", "operation", "count", "p50 us", "p99 us", "p99.9 us", "max us");
+            for (OperationResult r : perOperation) {
+                out.printf(Locale.ROOT, "%-12s %10d %10.1f %10.1f %10.1f %10.1f%n", r.operation(), r.count(),
+                        r.p50Nanos() / 1e3, r.p99Nanos() / 1e3, r.p999Nanos() / 1e3, r.maxNanos() / 1e3);
+            }
+            out.printf(Locale.ROOT, "allocation %.1f MB/s (worker threads)%n", allocatedBytesPerSecond / 1e6);
+            out.printf(Locale.ROOT, "GC: %d collections, %d ms total, longest pause %d ms%n",
+                    gcCount, gcTimeMillis, maxGcPauseMillis);
+        }
+    }
+
+    private SoakHarness() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Config config = Config.parse(args);
+        PrintStream out = System.out;
+        out.printf("Soak: %d threads, %s warmup + %s, %s..%s%n",
+                config.threads(), config.warmup(), config.duration(), config.from(), config.to());
+        run(config).print(out);
+    }
+
+    /**
+     * Runs the soak test. The API's status printing is silenced for the duration of the run.
+     */
+    public static Report run(Config config) throws InterruptedException {
+        SyntheticPrices prices = new SyntheticPrices(config.quarterHourFrom());
+        PrintStream originalOut = System.out;
+        ElpriserAPI.setMockResponseFunction(prices::json);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            ElpriserAPI api = new ElpriserAPI(true);
+            if (!config.warmup().isZero()) {
+                runPhase(api, config, config.warmup());
+            }
+            return runPhase(api, config, config.duration());
+        } finally {
+            System.setOut(originalOut);
+            ElpriserAPI.clearMockResponse();
+        }
+    }
+
+    private static Report runPhase(ElpriserAPI api, Config config, Duration duration) throws InterruptedException {
+        int threadCount = config.threads();
+        int days = (int) ChronoUnit.DAYS.between(config.from(), config.to()) + 1;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        LatencyHistogram[][] histograms = new LatencyHistogram[threadCount][Operation.values().length];
+        long[] allocated = new long[threadCount];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threadCount);
+        AtomicLong sink = new AtomicLong(); // keeps results alive so the JIT cannot drop the work
+
+        GcPauses pauses = GcPauses.start();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+
+        // Set just before the workers are released; the latch publishes it to them
+        long[] deadline = new long[1];
+        for (int t = 0; t < threadCount; t++) {
+            int index = t;
+            for (int o = 0; o < Operation.values().length; o++) {
+                histograms[t][o] = new LatencyHistogram();
+            }
+            Thread worker = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(index * 7919L + 17);
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                awaitQuietly(start);
+                long end = deadline[0];
+                long checksum = 0;
+                while (System.nanoTime() < end) {
+                    Operation operation = pick(random);
+                    LocalDate date = config.from().plusDays(random.nextInt(days));
+                    ElpriserAPI.Prisklass zone = ZONES[random.nextInt(ZONES.length)];
+                    long began = System.nanoTime();
+                    checksum += execute(api, operation, date, zone, config.to());
+                    histograms[index][operation.ordinal()].record(System.nanoTime() - began);
+                }
+                allocated[index] = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                sink.addAndGet(checksum);
+            }, "soak-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long began = System.nanoTime();
+        deadline[0] = began + duration.toNanos();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - began);
+        pauses.stop();
+
+        List<OperationResult> perOperation = new ArrayList<>();
+        long operations = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram merged = new LatencyHistogram();
+            for (int t = 0; t < threadCount; t++) {
+                merged.add(histograms[t][operation.ordinal()]);
+            }
+            operations += merged.count();
+            perOperation.add(new OperationResult(operation, merged.count(), merged.percentile(50),
+                    merged.percentile(99), merged.percentile(99.9), merged.max()));
+        }
+        long allocatedTotal = 0;
+        for (long bytes : allocated) {
+            allocatedTotal += bytes;
+        }
+        double seconds = elapsed.toNanos() / 1e9;
+        return new Report(elapsed, operations, operations / seconds, perOperation, allocatedTotal / seconds,
+                gcCount() - gcCountBefore, gcTimeMillis() - gcTimeBefore, pauses.maxPauseMillis());
+    }
+
+    private static long execute(ElpriserAPI api, Operation operation, LocalDate date,
+                                ElpriserAPI.Prisklass zone, LocalDate last) {
+        return switch (operation) {
+            case CACHED_READ -> api.getPriser(date, zone).size();
+            case REFRESH -> api.refresh(date, zone).size();
+            case MONTH_STATS -> {
+                PriceStats stats = new PriceStats();
+                LocalDate first = date.withDayOfMonth(1);
+                for (LocalDate day = first; day.getMonth() == first.getMonth() && !day.isAfter(last); day = day.plusDays(1)) {
+                    stats.merge(PriceStats.of(api.getPriser(day, zone)));
+                }
+                yield stats.maxIndex();
+            }
+            case WEEK_TOP_N -> {
+                PriceSeries week = PriceSeries.fetch(api, zone, date, date.plusDays(6));
+                yield PriceRanking.mostExpensive(week, 8).size();
+            }
+            case ZONE_SPREAD -> {
+                List<List<ElpriserAPI.Elpris>> perZone = new ArrayList<>(4);
+                for (ElpriserAPI.Prisklass z : ZONES) {
+                    perZone.add(PriceSeries.fetch(api, z, date, date.plusDays(1)));
+                }
+                yield ZoneSpread.align(perZone).analyze(2).arbitrage().size();
+            }
+        };
+    }
+
+    private static Operation pick(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return Operation.CACHED_READ;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * Tracks the longest single GC pause through the collectors' JMX notifications.
+     */
+    private static final class GcPauses {
+        private final AtomicLong maxPause = new AtomicLong();
+        private final NotificationListener listener = (notification, handback) -> {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // Concurrent cycles are reported too; only count stop-the-world pauses
+                if (!info.getGcName().contains("Concurrent") && !info.getGcCause().equals("No GC")) {
+                    maxPause.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+                }
+            }
+        };
+
+        static GcPauses start() {
+            GcPauses pauses = new GcPauses();
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter emitter) {
+                    emitter.addNotificationListener(pauses.listener, null, null);
+                }
+            }
+            return pauses;
+        }
+
+        void stop() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter emitter) {
+                    try {
+                        emitter.removeNotificationListener(listener);
+                    } catch (ListenerNotFoundException ignored) {
+                        // Never registered on this collector
+                    }
+                }
+            }
+        }
+
+        long maxPauseMillis() {
+            return maxPause.get();
+        }
+    }
+}
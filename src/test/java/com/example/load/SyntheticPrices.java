@@ -0,0 +1,107 @@
+package com.example.load;
+
+import com.example.api.ElpriserAPI;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+
+/**
+ * Generates realistic-looking price JSON in the same format as elprisetjustnu.se.
+ * <p>
+ * Prices follow a seasonal curve (dear winters, cheap summers), a daily curve with morning
+ * and evening peaks, a fixed level per zone (SE1 cheapest, SE4 dearest) and deterministic
+ * noise seeded by date and zone, so the same day always gives the same JSON. Days follow
+ * Europe/Stockholm, which gives 23 and 25 hour days at the DST switches. From
+ * {@code quarterHourFrom} on, days are split into 15-minute periods like the real API.
+ */
+public final class SyntheticPrices {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+    private static final double[] ZONE_LEVEL = {0.35, 0.40, 0.65, 0.85};
+
+    private final LocalDate quarterHourFrom;
+
+    /**
+     * @param quarterHourFrom first day with 15-minute periods, or null for hourly periods throughout
+     */
+    public SyntheticPrices(LocalDate quarterHourFrom) {
+        this.quarterHourFrom = quarterHourFrom;
+    }
+
+    /** The real API switched to 15-minute periods on 2025-10-01. */
+    public static SyntheticPrices likeRealApi() {
+        return new SyntheticPrices(LocalDate.of(2025, 10, 1));
+    }
+
+    public int slotMinutes(LocalDate date) {
+        return quarterHourFrom != null && !date.isBefore(quarterHourFrom) ? 15 : 60;
+    }
+
+    /** Number of periods the day has, taking DST into account. */
+    public int slotCount(LocalDate date) {
+        long seconds = date.plusDays(1).atStartOfDay(STOCKHOLM).toEpochSecond()
+                - date.atStartOfDay(STOCKHOLM).toEpochSecond();
+        return (int) (seconds / 60 / slotMinutes(date));
+    }
+
+    public String json(LocalDate date, ElpriserAPI.Prisklass zone) {
+        int slotMinutes = slotMinutes(date);
+        int slots = slotCount(date);
+        SplittableRandom random = new SplittableRandom(date.toEpochDay() * 31 + zone.ordinal());
+
+        // Roughly one dip per winter and several negative-price middays per summer
+        double season = Math.cos(2 * Math.PI * (date.getDayOfYear() - 15) / 365.25);
+        double seasonal = 1 + 0.45 * season;
+        double dayLevel = ZONE_LEVEL[zone.ordinal()] * seasonal * (0.7 + 0.6 * random.nextDouble());
+        boolean sunnySurplus = season < -0.5 && random.nextDouble() < 0.15;
+        double exr = 11.0 + 0.4 * Math.sin(date.toEpochDay() / 90.0);
+
+        StringBuilder json = new StringBuilder(slots * 160).append('[');
+        Instant start = date.atStartOfDay(STOCKHOLM).toInstant();
+        for (int i = 0; i < slots; i++) {
+            ZonedDateTime slotStart = start.plusSeconds(i * 60L * slotMinutes).atZone(STOCKHOLM);
+            ZonedDateTime slotEnd = slotStart.plusMinutes(slotMinutes);
+            double hour = slotStart.getHour() + slotStart.getMinute() / 60.0;
+
+            double shape = 1
+                    + 0.35 * bump(hour, 8, 1.5)
+                    + 0.50 * bump(hour, 18, 2.0)
+                    - 0.30 * bump(hour, 3.5, 2.0);
+            if (sunnySurplus) {
+                shape -= 1.4 * bump(hour, 13, 2.0);
+            }
+            double sek = round5(dayLevel * shape * (1 + 0.08 * gaussian(random)));
+
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"SEK_per_kWh\":").append(sek)
+                    .append(",\"EUR_per_kWh\":").append(round5(sek / exr))
+                    .append(",\"EXR\":").append(round5(exr))
+                    .append(",\"time_start\":\"").append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(slotStart))
+                    .append("\",\"time_end\":\"").append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(slotEnd))
+                    .append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static double bump(double hour, double center, double width) {
+        double d = (hour - center) / width;
+        return Math.exp(-d * d);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private static double round5(double value) {
+        return Math.round(value * 100_000) / 100_000.0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.load;
+
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticPricesTest {
+
+    private final SyntheticPrices prices = SyntheticPrices.likeRealApi();
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void dstDays_haveShortAndLongDays() {
+        assertThat(prices.slotCount(LocalDate.of(2025, 3, 30))).isEqualTo(23);
+        assertThat(prices.slotCount(LocalDate.of(2024, 10, 27))).isEqualTo(25);
+        assertThat(prices.slotCount(LocalDate.of(2025, 10, 26))).isEqualTo(100);
+        assertThat(prices.slotCount(LocalDate.of(2026, 3, 29))).isEqualTo(92);
+        assertThat(prices.slotCount(LocalDate.of(2025, 11, 3))).isEqualTo(96);
+    }
+
+    @Test
+    void generatedJson_isParsedByApiAndIsDeterministic() {
+        LocalDate date = LocalDate.of(2025, 10, 26);
+        ElpriserAPI.setMockResponseFunction(prices::json);
+        ElpriserAPI api = new ElpriserAPI(false);
+
+        List<ElpriserAPI.Elpris> priser = api.getPriser(date, ElpriserAPI.Prisklass.SE3);
+
+        assertThat(priser).hasSize(100);
+        assertThat(priser.get(0).timeStart().getOffset().getTotalSeconds()).isEqualTo(7200);
+        assertThat(priser.get(99).timeStart().getOffset().getTotalSeconds()).isEqualTo(3600);
+        assertThat(prices.json(date, ElpriserAPI.Prisklass.SE3)).isEqualTo(prices.json(date, ElpriserAPI.Prisklass.SE3));
+        assertThat(prices.json(date, ElpriserAPI.Prisklass.SE1)).isNotEqualTo(prices.json(date, ElpriserAPI.Prisklass.SE4));
+    }
+
+    @Test
+    void shortSoakRun_reportsEveryOperation() throws Exception {
+        SoakHarness.Config config = new SoakHarness.Config(4, Duration.ofMillis(300), Duration.ZERO,
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 11, 30), LocalDate.of(2025, 10, 1));
+
+        SoakHarness.Report report = SoakHarness.run(config);
+
+        assertThat(report.operations()).isPositive();
+        assertThat(report.perOperation()).hasSize(SoakHarness.Operation.values().length);
+        assertThat(report.perOperation()).allSatisfy(r -> assertThat(r.p99Nanos()).isGreaterThanOrEqualTo(r.p50Nanos()));
+    }
+}
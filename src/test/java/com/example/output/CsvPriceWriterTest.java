@@ -0,0 +1,38 @@
+package com.example.output;
+
+import com.example.api.BillSimulator;
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvPriceWriterTest {
+
+    private static final ZonedDateTime MIDNIGHT = ZonedDateTime.parse("2025-09-04T00:00:00+02:00");
+
+    @Test
+    void bill_hasItsOwnHeaderWithMeterAndSaving() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PriceWriter writer = PriceWriter.create(PriceWriter.Format.CSV, bytes);
+        writer.bill(new BillSimulator.Period("hus, garage", ElpriserAPI.Prisklass.SE3, BillSimulator.Kind.TOTAL,
+                MIDNIGHT, MIDNIGHT.plusDays(1), 10.0, 5.0, 4.0, 0.5));
+        writer.close();
+
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                type,time_start,time_end,zone,meter,kwh,cost,shifted_cost,saving,unpriced_kwh
+                total,2025-09-04T00:00:00+02:00,2025-09-05T00:00:00+02:00,SE3,"hus, garage",10.0,5.0,4.0,1.0,0.5
+                """);
+    }
+
+    @Test
+    void emptyRun_stillWritesThePriceHeader() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PriceWriter.create(PriceWriter.Format.CSV, bytes).close();
+
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).isEqualTo("type,time_start,time_end,zone,other_zone,value,hours\n");
+    }
+}
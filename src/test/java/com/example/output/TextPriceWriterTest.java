@@ -0,0 +1,82 @@
+package com.example.output;
+
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextPriceWriterTest {
+
+    private static final ZonedDateTime MIDNIGHT = ZonedDateTime.parse("2025-09-04T00:00:00+02:00");
+    private static final Locale SWEDISH = Locale.of("sv", "SE");
+
+    @Test
+    void text_matchesBaselineOutput() {
+        ElpriserAPI.Elpris cheap = price(0.12345, 1);
+        ElpriserAPI.Elpris dear = price(0.80075, 2);
+
+        String output = write(writer -> {
+            writer.mean(0.12345);
+            writer.cheapest(cheap);
+            writer.mostExpensive(dear);
+            writer.price(cheap);
+            writer.price(dear);
+            writer.chargingWindow(2, cheap, dear, 0.00925);
+        });
+
+        // What Main printed with printf/String.format before the writers, under sv_SE
+        assertThat(output).isEqualTo("""
+                Medelpris: 0,123 SEK/kWh
+                Lägsta pris: 01-02 -> 12,3 öre
+                Högsta pris: 02-03 -> 80,1 öre
+                01-02 12,35 öre
+                02-03 80,08 öre
+                Påbörja laddning: bästa 2h-fönster startar kl 01:00 (total kostnad: 0,9 öre)
+                """);
+    }
+
+    @Test
+    void text_roundsLikeStringFormat() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 10_000; i++) {
+            // Many values sit exactly on a rounding boundary in decimal
+            double sekPerKWh = random.nextInt(-200_000, 200_000) / 100_000.0;
+            ElpriserAPI.Elpris price = price(sekPerKWh, 0);
+            double ore = sekPerKWh * 100;
+
+            String output = write(writer -> {
+                writer.mean(sekPerKWh);
+                writer.cheapest(price);
+                writer.price(price);
+                writer.chargingWindow(1, price, price, sekPerKWh);
+            });
+
+            assertThat(output).isEqualTo(
+                    String.format(SWEDISH, "Medelpris: %.3f SEK/kWh\n", sekPerKWh)
+                    + String.format(SWEDISH, "Lägsta pris: %02d-%02d -> %.1f öre\n", 0, 1, ore)
+                    + String.format("%02d-%02d %s öre\n", 0, 1, String.format("%.2f", ore).replace('.', ','))
+                    + String.format("Påbörja laddning: bästa %dh-fönster startar kl %02d:00 (total kostnad: %s öre)\n",
+                            1, 0, String.format("%.1f", ore).replace('.', ',')));
+        }
+    }
+
+    private static String write(Consumer<PriceWriter> body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PriceWriter writer = PriceWriter.create(PriceWriter.Format.TEXT, bytes);
+        body.accept(writer);
+        writer.close();
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ElpriserAPI.Elpris price(double sekPerKWh, int hour) {
+        return new ElpriserAPI.Elpris(sekPerKWh, sekPerKWh / 10, 10.0,
+                MIDNIGHT.plusHours(hour), MIDNIGHT.plusHours(hour + 1));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.api;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD-implementation av {@link PriceKernels} med {@code jdk.incubator.vector}.
+ * Byggs bara med profilen {@code vector} och laddas via {@link PriceKernels#best()}.
+ * <p>
+ * Min/max håller per fil (lane) det bästa värdet och dess tidigaste index med samma strikta
+ * jämförelse som den skalära loopen, och väljer till sist det minsta indexet bland filerna
+ * med det bästa värdet. Det ger samma index som den skalära loopen, även vid lika värden,
+ * NaN och -0.0/0.0. Hittar SIMD-loopen och resten inget värde (bara oändliga värden eller NaN)
+ * avgör den skalära loopen, som då ger samma index som annars.
+ * <p>
+ * {@link #dot} multiplicerar och adderar var för sig, utan fma, precis som den skalära loopen.
+ */
+final class VectorPriceKernels implements PriceKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // 0, 1, 2, ... per fil; index lagras som double, vilket är exakt för alla int
+    private static final DoubleVector IOTA = DoubleVector.fromArray(SPECIES, iota(), 0);
+
+    public VectorPriceKernels() {
+        // Misslyckas här, och inte vid första anropet, om modulen inte finns
+        DoubleVector.zero(SPECIES);
+    }
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            acc = acc.add(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int minIndex(double[] values, int from, int to) {
+        DoubleVector best = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector bestIndex = DoubleVector.broadcast(SPECIES, -1);
+        DoubleVector index = IOTA.add(from);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+            // Strikt jämförelse: NaN och lika värden ersätter aldrig ett tidigare värde i samma fil
+            VectorMask<Double> better = v.compare(VectorOperators.LT, best);
+            best = best.blend(v, better);
+            bestIndex = bestIndex.blend(index, better);
+            index = index.add(SPECIES.length());
+        }
+        double min = best.reduceLanes(VectorOperators.MIN);
+        int result = min == Double.POSITIVE_INFINITY ? -1 : earliest(best, bestIndex, min);
+        for (; i < to; i++) {
+            if (values[i] < min) {
+                min = values[i];
+                result = i;
+            }
+        }
+        return result >= 0 || from >= to ? result : ScalarPriceKernels.INSTANCE.minIndex(values, from, to);
+    }
+
+    @Override
+    public int maxIndex(double[] values, int from, int to) {
+        DoubleVector best = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        DoubleVector bestIndex = DoubleVector.broadcast(SPECIES, -1);
+        DoubleVector index = IOTA.add(from);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+            VectorMask<Double> better = v.compare(VectorOperators.GT, best);
+            best = best.blend(v, better);
+            bestIndex = bestIndex.blend(index, better);
+            index = index.add(SPECIES.length());
+        }
+        double max = best.reduceLanes(VectorOperators.MAX);
+        int result = max == Double.NEGATIVE_INFINITY ? -1 : earliest(best, bestIndex, max);
+        for (; i < to; i++) {
+            if (values[i] > max) {
+                max = values[i];
+                result = i;
+            }
+        }
+        return result >= 0 || from >= to ? result : ScalarPriceKernels.INSTANCE.maxIndex(values, from, to);
+    }
+
+    @Override
+    public void sekToEur(double[] sek, double[] exr, double[] eur, int from, int to) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, sek, i)
+                    .div(DoubleVector.fromArray(SPECIES, exr, i))
+                    .intoArray(eur, i);
+        }
+        for (; i < to; i++) {
+            eur[i] = sek[i] / exr[i];
+        }
+    }
+
+    @Override
+    public void eurToSek(double[] eur, double[] exr, double[] sek, int from, int to) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, eur, i)
+                    .mul(DoubleVector.fromArray(SPECIES, exr, i))
+                    .intoArray(sek, i);
+        }
+        for (; i < to; i++) {
+            sek[i] = eur[i] * exr[i];
+        }
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            acc = acc.add(DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    /**
+     * Det minsta index bland de filer vars bästa värde är {@code target}. Varje fil håller sitt
+     * tidigaste index, så detta är det tidigaste indexet totalt, precis som i den skalära loopen.
+     */
+    private static int earliest(DoubleVector best, DoubleVector bestIndex, double target) {
+        VectorMask<Double> other = best.compare(VectorOperators.NE, target);
+        return (int) bestIndex.blend(Double.POSITIVE_INFINITY, other).reduceLanes(VectorOperators.MIN);
+    }
+
+    private static double[] iota() {
+        double[] iota = new double[SPECIES.length()];
+        for (int i = 0; i < iota.length; i++) {
+            iota[i] = i;
+        }
+        return iota;
+    }
+}